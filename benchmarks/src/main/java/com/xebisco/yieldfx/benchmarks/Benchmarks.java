@@ -0,0 +1,37 @@
+/*
+ * Copyright [2022] [Xebisco]
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.xebisco.yieldfx.benchmarks;
+
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Runs every benchmark, or the ones matching the first argument, and writes the results as JSON to the second argument ({@code target/jmh-result.json} by default).
+ * Install YieldFX with {@code mvn install} in the project root first, then run {@code mvn -f benchmarks compile exec:exec}.
+ */
+public class Benchmarks {
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(args.length > 0 ? args[0] : "com\\.xebisco\\.yieldfx\\.benchmarks\\..*")
+                .jvmArgsAppend("-Dglass.platform=Monocle", "-Dmonocle.platform=Headless", "-Dprism.order=sw")
+                .resultFormat(ResultFormatType.JSON)
+                .result(args.length > 1 ? args[1] : "target/jmh-result.json")
+                .build()).run();
+    }
+}
@@ -0,0 +1,61 @@
+/*
+ * Copyright [2022] [Xebisco]
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.xebisco.yieldfx.benchmarks;
+
+import com.xebisco.yieldfx.YieldFX;
+import javafx.scene.paint.Color;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Conversions between engine colors, JavaFX colors and packed ARGB.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ColorBenchmark {
+
+    private final com.xebisco.yield.Color[] colors = new com.xebisco.yield.Color[256];
+    private int index;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(3);
+        for (int i = 0; i < colors.length; i++)
+            colors[i] = new com.xebisco.yield.Color(random.nextFloat(), random.nextFloat(), random.nextFloat(), random.nextFloat());
+    }
+
+    @Benchmark
+    public Color toFXColor() {
+        return YieldFX.toFXColor(colors[index++ & 255]);
+    }
+
+    @Benchmark
+    public int toArgb() {
+        return YieldFX.toArgb(colors[index++ & 255]);
+    }
+
+    @Benchmark
+    public com.xebisco.yield.Color toYieldColor() {
+        return YieldFX.toYieldColor(0x80FF7F00 + index++);
+    }
+}
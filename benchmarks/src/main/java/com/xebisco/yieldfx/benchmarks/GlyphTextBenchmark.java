@@ -0,0 +1,103 @@
+/*
+ * Copyright [2022] [Xebisco]
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.xebisco.yieldfx.benchmarks;
+
+import com.xebisco.yield.Color;
+import com.xebisco.yield.render.Renderable;
+import com.xebisco.yield.render.RenderableType;
+import com.xebisco.yieldfx.FrameBuffer;
+import com.xebisco.yieldfx.RenderPass;
+import com.xebisco.yieldfx.TextCache;
+import com.xebisco.yieldfx.YieldFX;
+import javafx.scene.canvas.Canvas;
+import javafx.scene.canvas.GraphicsContext;
+import javafx.scene.image.WritableImage;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Short TEXT renderables (damage numbers) drawn with {@code fillText} and, with {@code atlas} on, as glyph quads from the {@code GlyphAtlas}.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class GlyphTextBenchmark {
+
+    @Param({"false", "true"})
+    private boolean atlas;
+
+    @Param({"2000"})
+    private int count;
+
+    private Canvas canvas;
+    private WritableImage target;
+    private GraphicsContext g;
+    private RenderPass renderPass;
+    private FrameBuffer frame;
+
+    @Setup
+    public void setUp() {
+        Headless.start();
+        canvas = new Canvas(1280, 720);
+        target = new WritableImage(1280, 720);
+        YieldFX yieldFX = new YieldFX();
+        yieldFX.loadFont("font", "System", 16, 0);
+        Random random = new Random(42);
+        List<Renderable> renderables = new ArrayList<>(count);
+        Color[] colors = {new Color(1, 1, 1), new Color(1, 0.2f, 0.2f), new Color(1, 0.9f, 0.1f)};
+        for (int i = 0; i < count; i++) {
+            Renderable renderable = new Renderable();
+            renderable.setType(RenderableType.TEXT);
+            renderable.setX(random.nextInt(1280));
+            renderable.setY(random.nextInt(720));
+            renderable.setColor(colors[random.nextInt(colors.length)]);
+            renderable.setSpecific(TextCache.key(Integer.toString(random.nextInt(10000)), "font"));
+            renderables.add(renderable);
+        }
+        g = canvas.getGraphicsContext2D();
+        renderPass = new RenderPass(yieldFX);
+        renderPass.setGlyphText(atlas);
+        frame = new FrameBuffer();
+        frame.fill(renderables);
+        Headless.runAndWait(this::record);
+    }
+
+    @Benchmark
+    public GraphicsContext record() {
+        g.clearRect(0, 0, canvas.getWidth(), canvas.getHeight());
+        renderPass.begin(g);
+        renderPass.render(g, frame);
+        renderPass.end(g);
+        return g;
+    }
+
+    @Benchmark
+    public WritableImage rasterize() {
+        Headless.runAndWait(() -> {
+            record();
+            canvas.snapshot(null, target);
+        });
+        return target;
+    }
+}
@@ -0,0 +1,92 @@
+/*
+ * Copyright [2022] [Xebisco]
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.xebisco.yieldfx.benchmarks;
+
+import com.xebisco.yield.Texture;
+import com.xebisco.yieldfx.Resampler;
+import com.xebisco.yieldfx.YieldFX;
+import javafx.application.Platform;
+import javafx.scene.image.WritableImage;
+
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+
+/**
+ * Starts the JavaFX toolkit on the Monocle headless platform once per benchmark JVM.
+ */
+public final class Headless {
+
+    private static boolean started;
+
+    private Headless() {
+    }
+
+    public static synchronized void start() {
+        if (started)
+            return;
+        System.setProperty("glass.platform", "Monocle");
+        System.setProperty("monocle.platform", "Headless");
+        System.setProperty("prism.order", "sw");
+        CountDownLatch latch = new CountDownLatch(1);
+        try {
+            Platform.startup(latch::countDown);
+        } catch (IllegalStateException e) {
+            latch.countDown();
+        }
+        await(latch);
+        started = true;
+    }
+
+    public static void runAndWait(Runnable runnable) {
+        if (Platform.isFxApplicationThread()) {
+            runnable.run();
+            return;
+        }
+        CountDownLatch latch = new CountDownLatch(1);
+        Platform.runLater(() -> {
+            try {
+                runnable.run();
+            } finally {
+                latch.countDown();
+            }
+        });
+        await(latch);
+    }
+
+    public static WritableImage image(int width, int height, long seed) {
+        Random random = new Random(seed);
+        int[] argb = new int[width * height];
+        for (int i = 0; i < argb.length; i++)
+            argb[i] = random.nextInt();
+        return Resampler.toImage(argb, width, height);
+    }
+
+    public static Texture texture(YieldFX yieldFX, int width, int height, long seed) {
+        Texture texture = new Texture("");
+        yieldFX.loadTexture(texture, image(width, height, seed));
+        return texture;
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        }
+    }
+}
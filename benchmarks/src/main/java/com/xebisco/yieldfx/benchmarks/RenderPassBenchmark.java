@@ -0,0 +1,120 @@
+/*
+ * Copyright [2022] [Xebisco]
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.xebisco.yieldfx.benchmarks;
+
+import com.xebisco.yield.Color;
+import com.xebisco.yield.Texture;
+import com.xebisco.yield.render.Renderable;
+import com.xebisco.yield.render.RenderableType;
+import com.xebisco.yieldfx.FrameBuffer;
+import com.xebisco.yieldfx.RenderPass;
+import com.xebisco.yieldfx.TextCache;
+import com.xebisco.yieldfx.YieldFX;
+import javafx.scene.canvas.Canvas;
+import javafx.scene.canvas.GraphicsContext;
+import javafx.scene.image.WritableImage;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The per-pulse work of the {@code AnimationTimer}: copying a synthetic frame of one {@link RenderableType}, recording it into the canvas and,
+ * in {@link #rasterize()}, drawing it to pixels with a snapshot on the FX thread.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RenderPassBenchmark {
+
+    @Param({"RECTANGLE", "OVAL", "ROUNDED_RECTANGLE", "LINE", "IMAGE", "TEXT"})
+    private RenderableType type;
+
+    @Param({"1000"})
+    private int count;
+
+    private Canvas canvas;
+    private WritableImage target;
+    private GraphicsContext g;
+    private RenderPass renderPass;
+    private FrameBuffer frame;
+    private List<Renderable> renderables;
+
+    @Setup
+    public void setUp() {
+        Headless.start();
+        canvas = new Canvas(1280, 720);
+        target = new WritableImage(1280, 720);
+        YieldFX yieldFX = new YieldFX();
+        yieldFX.loadFont("font", "System", 16, 0);
+        Texture texture = Headless.texture(yieldFX, 64, 64, 1);
+        Random random = new Random(42);
+        renderables = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            Renderable renderable = new Renderable();
+            renderable.setType(type);
+            renderable.setX(random.nextInt(1280));
+            renderable.setY(random.nextInt(720));
+            renderable.setWidth(8 + random.nextInt(64));
+            renderable.setHeight(8 + random.nextInt(64));
+            renderable.setThickness(1 + random.nextInt(4));
+            renderable.setArcWidth(8);
+            renderable.setArcHeight(8);
+            renderable.setRotation(random.nextInt(4) == 0 ? random.nextInt(360) : 0);
+            renderable.setFilled(random.nextBoolean());
+            renderable.setColor(new Color(random.nextFloat(), random.nextFloat(), random.nextFloat()));
+            if (type == RenderableType.IMAGE)
+                renderable.setSpecific(texture.getSpecificImage());
+            else if (type == RenderableType.TEXT)
+                renderable.setSpecific(TextCache.key("Score " + random.nextInt(100), "font"));
+            renderables.add(renderable);
+        }
+        g = canvas.getGraphicsContext2D();
+        renderPass = new RenderPass(yieldFX);
+        frame = new FrameBuffer();
+    }
+
+    @Benchmark
+    public FrameBuffer fill() {
+        frame.fill(renderables);
+        return frame;
+    }
+
+    @Benchmark
+    public GraphicsContext record() {
+        frame.fill(renderables);
+        g.clearRect(0, 0, canvas.getWidth(), canvas.getHeight());
+        renderPass.begin(g);
+        renderPass.render(g, frame);
+        renderPass.end(g);
+        return g;
+    }
+
+    @Benchmark
+    public WritableImage rasterize() {
+        Headless.runAndWait(() -> {
+            record();
+            canvas.snapshot(null, target);
+        });
+        return target;
+    }
+}
@@ -0,0 +1,61 @@
+/*
+ * Copyright [2022] [Xebisco]
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.xebisco.yieldfx.benchmarks;
+
+import com.xebisco.yieldfx.Resampler;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link Resampler} with every filter, scaling a square image up and down by two.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ResampleBenchmark {
+
+    @Param({"64", "512"})
+    private int size;
+
+    @Param({"NEAREST", "BILINEAR", "AREA"})
+    private Resampler.Filter filter;
+
+    private int[] argb;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(5);
+        argb = new int[size * size];
+        for (int i = 0; i < argb.length; i++)
+            argb[i] = random.nextInt();
+    }
+
+    @Benchmark
+    public int[] up() {
+        return Resampler.resample(argb, size, size, size * 2, size * 2, filter);
+    }
+
+    @Benchmark
+    public int[] down() {
+        return Resampler.resample(argb, size, size, size / 2, size / 2, filter);
+    }
+}
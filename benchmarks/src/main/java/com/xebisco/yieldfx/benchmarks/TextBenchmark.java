@@ -0,0 +1,66 @@
+/*
+ * Copyright [2022] [Xebisco]
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.xebisco.yieldfx.benchmarks;
+
+import com.xebisco.yieldfx.YieldFX;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@code getStringWidth}/{@code getStringHeight} served from the text cache and, with {@code cached} off, measured through a {@code Text} node every call.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TextBenchmark {
+
+    @Param({"true", "false"})
+    private boolean cached;
+
+    private final String[] strings = new String[64];
+    private YieldFX yieldFX;
+    private int index;
+
+    @Setup
+    public void setUp() {
+        Headless.start();
+        yieldFX = new YieldFX();
+        yieldFX.loadFont("font", "System", 16, 0);
+        for (int i = 0; i < strings.length; i++)
+            strings[i] = "Score: " + i * 1234;
+    }
+
+    @Benchmark
+    public float stringWidth() {
+        return yieldFX.getStringWidth(next(), "font");
+    }
+
+    @Benchmark
+    public float stringHeight() {
+        return yieldFX.getStringHeight(next(), "font");
+    }
+
+    private String next() {
+        if (!cached)
+            yieldFX.getTextCache().clear();
+        return strings[index++ & (strings.length - 1)];
+    }
+}
@@ -0,0 +1,84 @@
+/*
+ * Copyright [2022] [Xebisco]
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.xebisco.yieldfx.benchmarks;
+
+import com.xebisco.yield.Texture;
+import com.xebisco.yieldfx.YieldFX;
+import javafx.scene.image.WritableImage;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Texture paths: loading with flip generation, copying and the per-pixel color API.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TextureBenchmark {
+
+    @Param({"64", "512"})
+    private int size;
+
+    private YieldFX yieldFX;
+    private WritableImage image;
+    private Texture texture;
+    private int[] argb;
+    private com.xebisco.yield.Color[][] colors;
+
+    @Setup
+    public void setUp() {
+        Headless.start();
+        yieldFX = new YieldFX();
+        image = Headless.image(size, size, 7);
+        texture = new Texture("");
+        yieldFX.loadTexture(texture, image);
+        argb = yieldFX.getTextureArgb(texture);
+        colors = yieldFX.getTextureColors(texture);
+    }
+
+    @Benchmark
+    public Texture loadTexture() {
+        Texture texture = new Texture("");
+        yieldFX.loadTexture(texture, image);
+        return texture;
+    }
+
+    @Benchmark
+    public WritableImage copyImage() {
+        return YieldFX.copyImage(image);
+    }
+
+    @Benchmark
+    public com.xebisco.yield.Color[][] getTextureColors() {
+        return yieldFX.getTextureColors(texture);
+    }
+
+    @Benchmark
+    public Texture setTextureColors() {
+        yieldFX.setTextureColors(texture, colors);
+        return texture;
+    }
+
+    @Benchmark
+    public int[] getTextureArgb() {
+        return yieldFX.getTextureArgb(texture);
+    }
+}
@@ -0,0 +1,127 @@
+/*
+ * Copyright [2022] [Xebisco]
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.xebisco.yieldfx;
+
+/**
+ * One bit per pixel, set where the alpha of a texture reaches a threshold. Rows are packed into {@code long} words, lowest bit first, so overlap tests
+ * AND whole words of one mask against shifted words of the other.
+ */
+public class CollisionMask {
+
+    private final int width, height, words;
+    private final long[] bits;
+
+    public CollisionMask(int width, int height) {
+        this.width = width;
+        this.height = height;
+        words = (width + 63) >>> 6;
+        bits = new long[words * height];
+    }
+
+    public static CollisionMask fromArgb(int[] argb, int width, int height, int threshold) {
+        CollisionMask mask = new CollisionMask(width, height);
+        for (int y = 0; y < height; y++) {
+            int row = y * mask.words;
+            for (int x = 0, i = y * width; x < width; x++, i++)
+                if ((argb[i] >>> 24) >= threshold)
+                    mask.bits[row + (x >>> 6)] |= 1L << x;
+        }
+        return mask;
+    }
+
+    public CollisionMask flipped(boolean flipX, boolean flipY) {
+        CollisionMask mask = new CollisionMask(width, height);
+        for (int y = 0; y < height; y++) {
+            int src = y * words, dst = (flipY ? height - 1 - y : y) * words;
+            if (!flipX) {
+                System.arraycopy(bits, src, mask.bits, dst, words);
+                continue;
+            }
+            int shift = words * 64 - width;
+            for (int w = 0; w < words; w++) {
+                long word = Long.reverse(bits[src + words - 1 - w]);
+                mask.bits[dst + w] = word;
+            }
+            if (shift != 0) {
+                for (int w = 0; w < words; w++) {
+                    long next = w + 1 < words ? mask.bits[dst + w + 1] : 0;
+                    mask.bits[dst + w] = mask.bits[dst + w] >>> shift | next << (64 - shift);
+                }
+            }
+        }
+        return mask;
+    }
+
+    public boolean get(int x, int y) {
+        return x >= 0 && y >= 0 && x < width && y < height && (bits[y * words + (x >>> 6)] & 1L << x) != 0;
+    }
+
+    /**
+     * Whether a set bit of this mask meets a set bit of {@code other} when the top-left corner of {@code other} is at ({@code dx}, {@code dy}).
+     */
+    public boolean overlaps(CollisionMask other, int dx, int dy) {
+        int y0 = Math.max(0, dy), y1 = Math.min(height, dy + other.height);
+        int x0 = Math.max(0, dx), x1 = Math.min(width, dx + other.width);
+        if (y0 >= y1 || x0 >= x1)
+            return false;
+        int w0 = x0 >>> 6, w1 = (x1 - 1) >>> 6;
+        for (int y = y0; y < y1; y++) {
+            int row = y * words, otherRow = (y - dy) * other.words;
+            for (int w = w0; w <= w1; w++) {
+                long word = bits[row + w];
+                if (word != 0 && (word & other.window(otherRow, (w << 6) - dx)) != 0)
+                    return true;
+            }
+        }
+        return false;
+    }
+
+    private long window(int row, int start) {
+        if (start <= -64 || start >= width)
+            return 0;
+        if (start < 0)
+            return bits[row] << -start;
+        int w = start >>> 6, shift = start & 63;
+        long word = bits[row + w] >>> shift;
+        if (shift != 0 && w + 1 < words)
+            word |= bits[row + w + 1] << (64 - shift);
+        return word;
+    }
+
+    public int count() {
+        int count = 0;
+        for (long word : bits)
+            count += Long.bitCount(word);
+        return count;
+    }
+
+    public int getWidth() {
+        return width;
+    }
+
+    public int getHeight() {
+        return height;
+    }
+
+    public long[] getBits() {
+        return bits;
+    }
+
+    public int getWords() {
+        return words;
+    }
+}
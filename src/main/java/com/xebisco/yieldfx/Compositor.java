@@ -0,0 +1,102 @@
+/*
+ * Copyright [2022] [Xebisco]
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.xebisco.yieldfx;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Alpha-blends non-premultiplied ARGB pixel buffers with the source-over operator, clipping the source to the destination.
+ * Large blends are split into row bands that run on the common fork-join pool.
+ */
+public final class Compositor {
+
+    private static final int BAND_PIXELS = 64 * 1024;
+
+    private Compositor() {
+    }
+
+    /**
+     * Draws {@code src} over {@code dst} with its top-left corner at ({@code ox}, {@code oy}).
+     */
+    public static void over(int[] dst, int dw, int dh, int[] src, int sw, int sh, int ox, int oy) {
+        int x0 = Math.max(0, ox), y0 = Math.max(0, oy), x1 = Math.min(dw, ox + sw), y1 = Math.min(dh, oy + sh);
+        if (x0 >= x1 || y0 >= y1)
+            return;
+        Band band = new Band(dst, dw, src, sw, ox, oy, x0, x1, y0, y1);
+        if ((long) (x1 - x0) * (y1 - y0) <= BAND_PIXELS)
+            band.compute();
+        else
+            ForkJoinPool.commonPool().invoke(band);
+    }
+
+    public static int over(int d, int s) {
+        int sa = s >>> 24;
+        if (sa == 255)
+            return s;
+        if (sa == 0)
+            return d;
+        int da = d >>> 24;
+        if (da == 0)
+            return s;
+        int dw = da * (255 - sa);
+        int oa = sa * 255 + dw;
+        int sw = sa * 255;
+        int r = (((s >> 16) & 0xFF) * sw + ((d >> 16) & 0xFF) * dw + (oa >> 1)) / oa;
+        int g = (((s >> 8) & 0xFF) * sw + ((d >> 8) & 0xFF) * dw + (oa >> 1)) / oa;
+        int b = ((s & 0xFF) * sw + (d & 0xFF) * dw + (oa >> 1)) / oa;
+        return (oa + 127) / 255 << 24 | r << 16 | g << 8 | b;
+    }
+
+    private static void blend(int[] dst, int dw, int[] src, int sw, int ox, int oy, int x0, int x1, int y0, int y1) {
+        for (int y = y0; y < y1; y++) {
+            int d = y * dw + x0, s = (y - oy) * sw + x0 - ox;
+            for (int x = x0; x < x1; x++, d++, s++)
+                dst[d] = over(dst[d], src[s]);
+        }
+    }
+
+    private static final class Band extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final int[] dst, src;
+        private final int dw, sw, ox, oy, x0, x1, y0, y1;
+
+        private Band(int[] dst, int dw, int[] src, int sw, int ox, int oy, int x0, int x1, int y0, int y1) {
+            this.dst = dst;
+            this.dw = dw;
+            this.src = src;
+            this.sw = sw;
+            this.ox = ox;
+            this.oy = oy;
+            this.x0 = x0;
+            this.x1 = x1;
+            this.y0 = y0;
+            this.y1 = y1;
+        }
+
+        @Override
+        protected void compute() {
+            if ((long) (y1 - y0) * (x1 - x0) > BAND_PIXELS && y1 - y0 > 1) {
+                int mid = (y0 + y1) >>> 1;
+                invokeAll(new Band(dst, dw, src, sw, ox, oy, x0, x1, y0, mid), new Band(dst, dw, src, sw, ox, oy, x0, x1, mid, y1));
+                return;
+            }
+            blend(dst, dw, src, sw, ox, oy, x0, x1, y0, y1);
+        }
+    }
+}
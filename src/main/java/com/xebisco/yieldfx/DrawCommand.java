@@ -0,0 +1,213 @@
+/*
+ * Copyright [2022] [Xebisco]
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.xebisco.yieldfx;
+
+import com.xebisco.yield.render.Renderable;
+import com.xebisco.yield.render.RenderableType;
+import javafx.scene.paint.Color;
+
+import java.util.Objects;
+
+/**
+ * Copy of the state of a {@link Renderable} at the end of a frame. Instances are pooled by {@link FrameBuffer} and reused every frame.
+ */
+public class DrawCommand {
+
+    private RenderableType type;
+    private int x, y, width, height, thickness, arcWidth, arcHeight, rotation, zIndex;
+    private boolean filled, marked;
+    private Color color;
+    private Object specific;
+    private float minX, minY, maxX, maxY;
+
+    public void set(Renderable renderable, boolean marked) {
+        set(renderable, marked, null);
+    }
+
+    /**
+     * Copies a renderable. TEXT is bounded by its size measured in {@code textCache}, or left unbounded without one: {@link RenderPass} centres it on
+     * x with the baseline a quarter of its height below y, so it spans its full height above and below y, plus the glyph padding.
+     */
+    public void set(Renderable renderable, boolean marked, TextCache textCache) {
+        this.marked = marked;
+        type = renderable.getType();
+        x = renderable.getX();
+        y = renderable.getY();
+        width = renderable.getWidth();
+        height = renderable.getHeight();
+        thickness = renderable.getThickness();
+        arcWidth = renderable.getArcWidth();
+        arcHeight = renderable.getArcHeight();
+        rotation = renderable.getRotation();
+        zIndex = renderable.getzIndex();
+        filled = renderable.isFilled();
+        if (type == RenderableType.IMAGE) {
+            color = null;
+            specific = renderable.getSpecific();
+        } else {
+            if (renderable.getSpecificColor() == null)
+                renderable.setSpecificColor(YieldFX.toFXColor(renderable.getColor()));
+            color = (Color) renderable.getSpecificColor();
+            specific = type == RenderableType.TEXT ? renderable.getSpecific().toString() : renderable.getSpecific();
+        }
+        bounds(type == RenderableType.TEXT && textCache != null ? textCache.get((String) specific) : null);
+    }
+
+    private void bounds(TextCache.Metrics text) {
+        float hw, hh;
+        if (type == RenderableType.TEXT) {
+            if (text == null) {
+                minX = minY = Float.NEGATIVE_INFINITY;
+                maxX = maxY = Float.POSITIVE_INFINITY;
+                return;
+            }
+            hw = text.getWidth() / 2f + 2;
+            hh = text.getHeight() + 2;
+        } else {
+            hw = Math.abs(width) / 2f + thickness;
+            hh = Math.abs(height) / 2f + thickness;
+        }
+        int a = Math.floorMod(rotation, 360);
+        if (a != 0) {
+            double cos = Math.abs(RenderPass.COS[a]), sin = Math.abs(RenderPass.SIN[a]);
+            float w = (float) (cos * hw + sin * hh);
+            hh = (float) (sin * hw + cos * hh);
+            hw = w;
+        }
+        minX = x - hw;
+        minY = y - hh;
+        maxX = x + hw;
+        maxY = y + hh;
+    }
+
+    public boolean intersects(float minX, float minY, float maxX, float maxY) {
+        return this.maxX >= minX && this.minX <= maxX && this.maxY >= minY && this.minY <= maxY;
+    }
+
+    public void set(DrawCommand command) {
+        type = command.type;
+        x = command.x;
+        y = command.y;
+        width = command.width;
+        height = command.height;
+        thickness = command.thickness;
+        arcWidth = command.arcWidth;
+        arcHeight = command.arcHeight;
+        rotation = command.rotation;
+        zIndex = command.zIndex;
+        filled = command.filled;
+        marked = command.marked;
+        color = command.color;
+        specific = command.specific;
+        minX = command.minX;
+        minY = command.minY;
+        maxX = command.maxX;
+        maxY = command.maxY;
+    }
+
+    public void clear() {
+        color = null;
+        specific = null;
+    }
+
+    public RenderableType getType() {
+        return type;
+    }
+
+    public int getX() {
+        return x;
+    }
+
+    public int getY() {
+        return y;
+    }
+
+    public int getWidth() {
+        return width;
+    }
+
+    public int getHeight() {
+        return height;
+    }
+
+    public int getThickness() {
+        return thickness;
+    }
+
+    public int getArcWidth() {
+        return arcWidth;
+    }
+
+    public int getArcHeight() {
+        return arcHeight;
+    }
+
+    public int getRotation() {
+        return rotation;
+    }
+
+    public int getzIndex() {
+        return zIndex;
+    }
+
+    public boolean isFilled() {
+        return filled;
+    }
+
+    public Color getColor() {
+        return color;
+    }
+
+    public Object getSpecific() {
+        return specific;
+    }
+
+    public float getMinX() {
+        return minX;
+    }
+
+    public float getMinY() {
+        return minY;
+    }
+
+    public float getMaxX() {
+        return maxX;
+    }
+
+    public float getMaxY() {
+        return maxY;
+    }
+
+    public boolean isMarked() {
+        return marked;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        DrawCommand that = (DrawCommand) o;
+        return x == that.x && y == that.y && width == that.width && height == that.height && thickness == that.thickness && arcWidth == that.arcWidth
+                && arcHeight == that.arcHeight && rotation == that.rotation && zIndex == that.zIndex && filled == that.filled && type == that.type
+                && Objects.equals(color, that.color) && Objects.equals(specific, that.specific);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(type, x, y, width, height, rotation, zIndex, specific);
+    }
+}
@@ -0,0 +1,36 @@
+/*
+ * Copyright [2022] [Xebisco]
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.xebisco.yieldfx;
+
+import com.xebisco.yield.Texture;
+
+/**
+ * Stands in for the image of a {@link Texture}, or of one of its flipped variants, evicted by the {@link TextureRegistry}. Drawing it reloads the
+ * texture through {@link TextureRegistry#resolve}.
+ */
+public class EvictedTexture {
+
+    private final Texture texture;
+
+    public EvictedTexture(Texture texture) {
+        this.texture = texture;
+    }
+
+    public Texture getTexture() {
+        return texture;
+    }
+}
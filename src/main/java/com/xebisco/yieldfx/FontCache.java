@@ -0,0 +1,177 @@
+/*
+ * Copyright [2022] [Xebisco]
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.xebisco.yieldfx;
+
+import com.xebisco.yield.RelativeFile;
+import javafx.scene.canvas.Canvas;
+import javafx.scene.canvas.GraphicsContext;
+import javafx.scene.text.Font;
+import javafx.scene.text.FontPosture;
+import javafx.scene.text.FontWeight;
+import javafx.scene.text.Text;
+
+import java.io.InputStream;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * Shared cache of fonts keyed by source file or family, size and style. A font file is parsed once; other sizes of it are created from the registered
+ * font name. Preloaded fonts are laid out and drawn, glyph by glyph, into a small canvas that is never added to the scene, and the canvas is snapshotted
+ * on the next pulse, so their glyphs are rasterized before the first frame that uses them.
+ */
+public class FontCache {
+
+    public static final String DEFAULT_CHARACTERS;
+
+    static {
+        StringBuilder builder = new StringBuilder();
+        for (char c = 32; c < 127; c++)
+            builder.append(c);
+        DEFAULT_CHARACTERS = builder.toString();
+    }
+
+    private final Map<String, Font> fonts = new HashMap<>();
+    private final Map<String, String> names = new HashMap<>();
+    private final Queue<Preload> pending = new ConcurrentLinkedQueue<>();
+    private final Canvas canvas = new Canvas(1, 1);
+    private final Text measure = new Text();
+    private String characters = DEFAULT_CHARACTERS;
+    private long hits, misses, parses;
+
+    public synchronized Font family(String family, float size, int style) {
+        String key = family + "\1" + size + "\1" + style;
+        Font font = fonts.get(key);
+        if (font != null) {
+            hits++;
+            return font;
+        }
+        misses++;
+        if (style == 2)
+            font = Font.font(family, FontPosture.ITALIC, size);
+        else
+            font = Font.font(family, style == 1 ? FontWeight.BOLD : FontWeight.NORMAL, size);
+        fonts.put(key, font);
+        return font;
+    }
+
+    public synchronized Font file(RelativeFile file, float size) {
+        String path = file.getCachedPath();
+        String key = "\2" + path + "\1" + size;
+        Font font = fonts.get(key);
+        if (font != null) {
+            hits++;
+            return font;
+        }
+        misses++;
+        String name = names.get(path);
+        if (name != null) {
+            font = new Font(name, size);
+        } else {
+            InputStream stream = file.getInputStream();
+            if (stream == null)
+                throw new YieldFXException("YieldFX: Font file not found '" + path + "'");
+            font = Font.loadFont(stream, size);
+            if (file.isFlushAfterLoad())
+                file.flush();
+            if (font == null)
+                throw new YieldFXException("YieldFX: Could not parse font file '" + path + "'");
+            parses++;
+            names.put(path, font.getName());
+        }
+        fonts.put(key, font);
+        return font;
+    }
+
+    public void preload(Font font) {
+        preload(font, characters);
+    }
+
+    public void preload(Font font, String characters) {
+        pending.add(new Preload(font, characters));
+    }
+
+    public void warm() {
+        if (pending.isEmpty())
+            return;
+        GraphicsContext g = canvas.getGraphicsContext2D();
+        g.clearRect(0, 0, canvas.getWidth(), canvas.getHeight());
+        Preload preload;
+        while ((preload = pending.poll()) != null) {
+            measure.setFont(preload.font);
+            measure.setText(preload.characters);
+            measure.getBoundsInLocal();
+            double size = Math.ceil(preload.font.getSize() * 2);
+            if (canvas.getWidth() < size || canvas.getHeight() < size) {
+                canvas.setWidth(Math.max(canvas.getWidth(), size));
+                canvas.setHeight(Math.max(canvas.getHeight(), size));
+            }
+            g.setFont(preload.font);
+            for (int i = 0; i < preload.characters.length(); i++)
+                g.fillText(preload.characters.substring(i, i + 1), 0, preload.font.getSize());
+        }
+        canvas.snapshot(null, null);
+    }
+
+    public synchronized void clear() {
+        fonts.clear();
+        names.clear();
+    }
+
+    public Canvas getCanvas() {
+        return canvas;
+    }
+
+    public boolean isWarming() {
+        return !pending.isEmpty();
+    }
+
+    public String getCharacters() {
+        return characters;
+    }
+
+    public void setCharacters(String characters) {
+        this.characters = characters;
+    }
+
+    public synchronized int size() {
+        return fonts.size();
+    }
+
+    public synchronized long getHits() {
+        return hits;
+    }
+
+    public synchronized long getMisses() {
+        return misses;
+    }
+
+    public synchronized long getParses() {
+        return parses;
+    }
+
+    private static final class Preload {
+        private final Font font;
+        private final String characters;
+
+        private Preload(Font font, String characters) {
+            this.font = font;
+            this.characters = characters;
+        }
+    }
+}
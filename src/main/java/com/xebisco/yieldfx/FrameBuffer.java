@@ -0,0 +1,160 @@
+/*
+ * Copyright [2022] [Xebisco]
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.xebisco.yieldfx;
+
+import com.xebisco.yield.render.Renderable;
+import javafx.scene.paint.Color;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Snapshot of everything needed to draw one frame. The {@link DrawCommand}s are kept between frames, so filling a buffer doesn't allocate once it reached the scene size.
+ */
+public class FrameBuffer {
+
+    private DrawCommand[] commands = new DrawCommand[0];
+    private int size;
+    private long frame;
+    private Color bgColor;
+    private SpatialGrid grid;
+    private boolean indexed, sorted;
+    private TextCache textCache;
+
+    private static final Comparator<DrawCommand> BATCH_ORDER = (a, b) -> {
+        int c = Integer.compare(a.getType().ordinal(), b.getType().ordinal());
+        if (c != 0)
+            return c;
+        return Integer.compare(System.identityHashCode(image(a.getSpecific())), System.identityHashCode(image(b.getSpecific())));
+    };
+
+    private static Object image(Object specific) {
+        return specific instanceof TextureView ? ((TextureView) specific).getSource() : specific;
+    }
+
+    public void fill(Collection<Renderable> renderables) {
+        fill(renderables, null);
+    }
+
+    public void fill(Collection<Renderable> renderables, StaticLayer layer) {
+        fill(renderables, layer, Collections.emptyList());
+    }
+
+    /**
+     * Fills the buffer with {@code background} followed by {@code renderables}.
+     */
+    public void fill(Collection<Renderable> renderables, StaticLayer layer, List<Renderable> background) {
+        int n = background.size() + renderables.size();
+        if (commands.length < n) {
+            int old = commands.length;
+            commands = Arrays.copyOf(commands, Math.max(n, old * 2));
+            for (int i = old; i < commands.length; i++)
+                commands[i] = new DrawCommand();
+        }
+        int i = 0;
+        for (Renderable renderable : background)
+            commands[i++].set(renderable, layer != null && layer.isMarked(renderable), textCache);
+        for (Renderable renderable : renderables)
+            commands[i++].set(renderable, layer != null && layer.isMarked(renderable), textCache);
+        for (int j = i; j < size; j++)
+            commands[j].clear();
+        size = i;
+        sorted = false;
+    }
+
+    /**
+     * Regroups runs of commands with the same zIndex by type and image, once per fill. The spatial index refers to command positions, so it is brought
+     * up to date if the buffer was already indexed.
+     */
+    public void sortByType() {
+        if (sorted)
+            return;
+        sorted = true;
+        int start = 0;
+        for (int i = 1; i <= size; i++) {
+            if (i == size || commands[i].getzIndex() != commands[start].getzIndex()) {
+                if (i - start > 1)
+                    Arrays.sort(commands, start, i, BATCH_ORDER);
+                start = i;
+            }
+        }
+        if (indexed)
+            grid.update(commands, size);
+    }
+
+    public boolean isSorted() {
+        return sorted;
+    }
+
+    /**
+     * Keeps the spatial index of this buffer up to date once it holds at least {@code threshold} commands; a threshold of 0 or less turns indexing off.
+     */
+    public void index(int threshold, int cellSize) {
+        if (threshold <= 0 || size < threshold) {
+            if (indexed)
+                grid.clear();
+            indexed = false;
+            return;
+        }
+        if (grid == null || grid.getCellSize() != cellSize)
+            grid = new SpatialGrid(cellSize);
+        grid.update(commands, size);
+        indexed = true;
+    }
+
+    public SpatialGrid getGrid() {
+        return indexed ? grid : null;
+    }
+
+    public DrawCommand[] getCommands() {
+        return commands;
+    }
+
+    public int getSize() {
+        return size;
+    }
+
+    public long getFrame() {
+        return frame;
+    }
+
+    public void setFrame(long frame) {
+        this.frame = frame;
+    }
+
+    public TextCache getTextCache() {
+        return textCache;
+    }
+
+    /**
+     * Sets the cache TEXT commands are measured with, so they get real bounds for culling and indexing instead of unbounded ones.
+     */
+    public void setTextCache(TextCache textCache) {
+        this.textCache = textCache;
+    }
+
+    public Color getBgColor() {
+        return bgColor;
+    }
+
+    public void setBgColor(Color bgColor) {
+        this.bgColor = bgColor;
+    }
+}
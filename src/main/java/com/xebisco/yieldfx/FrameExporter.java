@@ -0,0 +1,186 @@
+/*
+ * Copyright [2022] [Xebisco]
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.xebisco.yieldfx;
+
+import javafx.scene.image.PixelFormat;
+import javafx.scene.image.PixelReader;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+import java.util.zip.Deflater;
+
+/**
+ * Writes captured frames to {@code frame-NNNNNN.png} or {@code .raw} files (big-endian ARGB, row-major) on worker threads.
+ * Pixels are copied into one of {@code capacity} pooled buffers; when none is free the frame is either dropped or the caller waits, depending on the {@link Overflow} policy.
+ */
+public class FrameExporter implements AutoCloseable {
+
+    public enum Format {
+        PNG, RAW
+    }
+
+    public enum Overflow {
+        DROP, BLOCK
+    }
+
+    private final Path directory;
+    private final Format format;
+    private final Overflow overflow;
+    private final ExecutorService workers;
+    private final BlockingQueue<int[]> free;
+    private final AtomicInteger pending = new AtomicInteger();
+    private final AtomicLong exported = new AtomicLong(), dropped = new AtomicLong();
+    private volatile int compression = Deflater.BEST_SPEED;
+    private volatile String error;
+
+    public FrameExporter(Path directory, Format format, int workers, int capacity, Overflow overflow) {
+        this.directory = directory;
+        this.format = format;
+        this.overflow = overflow;
+        AtomicInteger count = new AtomicInteger();
+        this.workers = Executors.newFixedThreadPool(workers, r -> {
+            Thread thread = new Thread(r, "YieldFX-FrameExporter-" + count.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        free = new ArrayBlockingQueue<>(capacity);
+        for (int i = 0; i < capacity; i++)
+            free.add(new int[0]);
+        try {
+            Files.createDirectories(directory);
+        } catch (IOException e) {
+            throw new YieldFXException("YieldFX: Could not create export directory '" + directory + "': " + e.getMessage());
+        }
+    }
+
+    public FrameExporter(Path directory, Format format) {
+        this(directory, format, Math.max(1, Runtime.getRuntime().availableProcessors() / 2), 4, Overflow.DROP);
+    }
+
+    public boolean submit(long frame, PixelReader reader, int width, int height) {
+        int[] buffer;
+        if (overflow == Overflow.BLOCK) {
+            try {
+                buffer = free.take();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                dropped.incrementAndGet();
+                return false;
+            }
+        } else {
+            buffer = free.poll();
+            if (buffer == null) {
+                dropped.incrementAndGet();
+                return false;
+            }
+        }
+        int[] pixels = buffer.length < width * height ? new int[width * height] : buffer;
+        reader.getPixels(0, 0, width, height, PixelFormat.getIntArgbInstance(), pixels, 0, width);
+        pending.incrementAndGet();
+        workers.execute(() -> {
+            try {
+                write(frame, pixels, width, height);
+                exported.incrementAndGet();
+            } catch (IOException e) {
+                error = "YieldFX: Could not export frame " + frame + ": " + e.getMessage();
+            } finally {
+                free.add(pixels);
+                pending.decrementAndGet();
+            }
+        });
+        return true;
+    }
+
+    private void write(long frame, int[] pixels, int width, int height) throws IOException {
+        Path file = directory.resolve(String.format("frame-%06d.%s", frame, format == Format.PNG ? "png" : "raw"));
+        try (OutputStream out = Files.newOutputStream(file)) {
+            if (format == Format.PNG) {
+                PngEncoder.encode(pixels, width, height, out, compression);
+            } else {
+                ByteBuffer bytes = ByteBuffer.allocate(width * height * 4);
+                bytes.asIntBuffer().put(pixels, 0, width * height);
+                out.write(bytes.array());
+            }
+        }
+    }
+
+    public void flush() {
+        while (pending.get() > 0)
+            LockSupport.parkNanos(1_000_000L);
+        if (error != null)
+            throw new YieldFXException(error);
+    }
+
+    @Override
+    public void close() {
+        workers.shutdown();
+        try {
+            workers.awaitTermination(1, TimeUnit.MINUTES);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (error != null)
+            throw new YieldFXException(error);
+    }
+
+    public Path getDirectory() {
+        return directory;
+    }
+
+    public Format getFormat() {
+        return format;
+    }
+
+    public Overflow getOverflow() {
+        return overflow;
+    }
+
+    public int getCompression() {
+        return compression;
+    }
+
+    public void setCompression(int compression) {
+        this.compression = compression;
+    }
+
+    public int getPending() {
+        return pending.get();
+    }
+
+    public long getExported() {
+        return exported.get();
+    }
+
+    public long getDropped() {
+        return dropped.get();
+    }
+
+    public String getError() {
+        return error;
+    }
+}
@@ -0,0 +1,55 @@
+/*
+ * Copyright [2022] [Xebisco]
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.xebisco.yieldfx;
+
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Lock-free triple buffer between the game thread, which fills the back buffer and publishes it, and the FX thread, which takes the newest published one.
+ */
+public class FrameHandoff {
+
+    private final AtomicReference<FrameBuffer> pending = new AtomicReference<>(new FrameBuffer());
+    private FrameBuffer back = new FrameBuffer(), front = new FrameBuffer();
+    private long frames, skipped;
+
+    public FrameBuffer getBack() {
+        return back;
+    }
+
+    public void publish() {
+        back.setFrame(++frames);
+        back = pending.getAndSet(back);
+    }
+
+    public boolean acquire() {
+        if (pending.get().getFrame() <= front.getFrame())
+            return false;
+        long previous = front.getFrame();
+        front = pending.getAndSet(front);
+        skipped = front.getFrame() - previous - 1;
+        return true;
+    }
+
+    public FrameBuffer getFront() {
+        return front;
+    }
+
+    public long getSkipped() {
+        return skipped;
+    }
+}
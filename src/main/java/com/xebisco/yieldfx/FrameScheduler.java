@@ -0,0 +1,158 @@
+/*
+ * Copyright [2022] [Xebisco]
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.xebisco.yieldfx;
+
+import com.xebisco.yield.YldTask;
+
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Decides when the game thread is released to simulate the next frame and keeps nanosecond frame time statistics.
+ * <ul>
+ *     <li>{@link Mode#PULSE_LOCKED}: the FX thread releases the game once per presented frame, so the game runs at the JavaFX pulse rate.</li>
+ *     <li>{@link Mode#FIXED_TIMESTEP}: the game thread paces itself at the target fps with {@code System.nanoTime} deadlines, independent of the pulse.</li>
+ *     <li>{@link Mode#UNCAPPED}: the game thread releases itself as soon as a frame is published.</li>
+ * </ul>
+ */
+public class FrameScheduler {
+
+    public enum Mode {
+        PULSE_LOCKED, FIXED_TIMESTEP, UNCAPPED
+    }
+
+    private static final long SPIN_NANOS = 1_000_000L;
+
+    private volatile Mode mode = Mode.PULSE_LOCKED;
+    private volatile long step = 1_000_000_000L / 60;
+    private final long[] samples;
+    private int sampleIndex, sampleCount;
+    private long sampleSum, lastFrame, deadline;
+    private volatile long lastFrameTime, averageFrameTime;
+    private volatile double smoothedFrameTime;
+    private double smoothing = 0.1;
+    private volatile long lastRelease;
+
+    public FrameScheduler(int window) {
+        samples = new long[window];
+    }
+
+    public FrameScheduler() {
+        this(120);
+    }
+
+    public void frameEnd(YldTask threadTask) {
+        long now = System.nanoTime();
+        if (lastFrame != 0)
+            record(now - lastFrame);
+        lastFrame = now;
+        switch (mode) {
+            case UNCAPPED:
+                release(threadTask, now);
+                break;
+            case FIXED_TIMESTEP:
+                deadline += step;
+                if (now - deadline > step * 4 || deadline - now > step)
+                    deadline = now + step;
+                waitUntil(deadline);
+                release(threadTask, System.nanoTime());
+                break;
+        }
+    }
+
+    public void pulse(long now, boolean presented, YldTask threadTask) {
+        if (mode != Mode.PULSE_LOCKED)
+            return;
+        if (presented || now - lastRelease > step * 2 + 32_000_000L)
+            release(threadTask, now);
+    }
+
+    private void release(YldTask threadTask, long now) {
+        lastRelease = now;
+        threadTask.execute();
+    }
+
+    private static void waitUntil(long deadline) {
+        long left;
+        while ((left = deadline - System.nanoTime()) > SPIN_NANOS)
+            LockSupport.parkNanos(left - SPIN_NANOS);
+        while (deadline - System.nanoTime() > 0)
+            Thread.onSpinWait();
+    }
+
+    private void record(long frameTime) {
+        if (sampleCount == samples.length)
+            sampleSum -= samples[sampleIndex];
+        else
+            sampleCount++;
+        samples[sampleIndex] = frameTime;
+        sampleSum += frameTime;
+        sampleIndex = (sampleIndex + 1) % samples.length;
+        lastFrameTime = frameTime;
+        averageFrameTime = sampleSum / sampleCount;
+        smoothedFrameTime = smoothedFrameTime == 0 ? frameTime : smoothedFrameTime + (frameTime - smoothedFrameTime) * smoothing;
+    }
+
+    public float getFps() {
+        double t = smoothedFrameTime;
+        return t == 0 ? 0 : (float) (1_000_000_000.0 / t);
+    }
+
+    public float getAverageFps() {
+        long t = averageFrameTime;
+        return t == 0 ? 0 : (float) (1_000_000_000.0 / t);
+    }
+
+    public Mode getMode() {
+        return mode;
+    }
+
+    public void setMode(Mode mode) {
+        this.mode = mode;
+    }
+
+    public void setTargetFps(int fps) {
+        step = 1_000_000_000L / Math.max(1, fps);
+    }
+
+    public long getStep() {
+        return step;
+    }
+
+    public void setStep(long step) {
+        this.step = step;
+    }
+
+    public long getLastFrameTime() {
+        return lastFrameTime;
+    }
+
+    public long getAverageFrameTime() {
+        return averageFrameTime;
+    }
+
+    public double getSmoothedFrameTime() {
+        return smoothedFrameTime;
+    }
+
+    public double getSmoothing() {
+        return smoothing;
+    }
+
+    public void setSmoothing(double smoothing) {
+        this.smoothing = smoothing;
+    }
+}
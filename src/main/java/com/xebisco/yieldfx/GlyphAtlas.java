@@ -0,0 +1,252 @@
+/*
+ * Copyright [2022] [Xebisco]
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.xebisco.yieldfx;
+
+import javafx.application.Platform;
+import javafx.scene.SnapshotParameters;
+import javafx.scene.canvas.Canvas;
+import javafx.scene.canvas.GraphicsContext;
+import javafx.scene.image.Image;
+import javafx.scene.image.PixelFormat;
+import javafx.scene.image.WritableImage;
+import javafx.scene.paint.Color;
+import javafx.scene.text.Font;
+import javafx.scene.text.Text;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Text drawn from per-font glyph atlases. Each font's characters are rasterized once, white on transparent, with their advances measured the same way as
+ * {@link TextCache}; a string is then drawn as one {@code drawImage} quad per glyph from a copy of the atlas tinted to the string's RGB, with its opacity
+ * applied as global alpha. Strings with characters outside the atlas, and fonts first seen off the FX thread, are left to {@code fillText}. Pages are
+ * built and drawn on the FX thread, and may be removed from any thread.
+ * <p>
+ * Each tinted copy is a full copy of the atlas, and the copies of a font are kept in a least recently used cache of {@code maxTints} entries (16 by
+ * default). Colours that differ only in opacity share a copy, so fading text does not rebuild it; a frame drawing one font in more RGB colours than
+ * that rebuilds atlases every frame, so raise {@link #setMaxTints} to cover the colours in use.
+ */
+public class GlyphAtlas {
+
+    private static final int PAD = 2, COLUMNS = 16;
+
+    private final Map<Font, Page> pages = new ConcurrentHashMap<>();
+    private final Text measure = new Text();
+    private String characters = FontCache.DEFAULT_CHARACTERS;
+    private int maxTints = 16;
+
+    public boolean draw(GraphicsContext g, TextCache.Metrics text, Color color, double x, double baseline) {
+        Page page = pages.get(text.getFont());
+        if (page == null) {
+            if (text.getFont() == null || !Platform.isFxApplicationThread())
+                return false;
+            page = new Page(text.getFont());
+            pages.put(text.getFont(), page);
+        }
+        String s = text.getText();
+        for (int i = 0; i < s.length(); i++)
+            if (page.glyph(s.charAt(i)) < 0)
+                return false;
+        Image image = page.tint(color);
+        double alpha = g.getGlobalAlpha();
+        if (color.getOpacity() < 1)
+            g.setGlobalAlpha(alpha * color.getOpacity());
+        double pen = x, top = baseline - page.ascent - PAD;
+        int previous = -1;
+        for (int i = 0; i < s.length(); i++) {
+            int glyph = page.glyph(s.charAt(i));
+            if (previous >= 0)
+                pen += page.kerning(previous, glyph);
+            previous = glyph;
+            if (!page.blank[glyph])
+                g.drawImage(image, (glyph % COLUMNS) * page.cellWidth, (glyph / COLUMNS) * page.cellHeight, page.cellWidth, page.cellHeight,
+                        Math.round(pen) - PAD, Math.round(top), page.cellWidth, page.cellHeight);
+            pen += page.advances[glyph];
+        }
+        g.setGlobalAlpha(alpha);
+        return true;
+    }
+
+    public void remove(Font font) {
+        pages.remove(font);
+    }
+
+    public void clear() {
+        pages.clear();
+    }
+
+    public int size() {
+        return pages.size();
+    }
+
+    public String getCharacters() {
+        return characters;
+    }
+
+    public void setCharacters(String characters) {
+        this.characters = characters;
+        pages.clear();
+    }
+
+    /**
+     * How many tinted copies of the atlas each font keeps; use at least the number of colours one font is drawn in per frame.
+     */
+    public int getMaxTints() {
+        return maxTints;
+    }
+
+    public void setMaxTints(int maxTints) {
+        this.maxTints = maxTints;
+    }
+
+    private static int[] empty(int size) {
+        int[] keys = new int[size];
+        Arrays.fill(keys, -1);
+        return keys;
+    }
+
+    private float width(Font font, String s) {
+        measure.setFont(font);
+        measure.setText(s);
+        return (float) measure.getBoundsInLocal().getWidth();
+    }
+
+    private final class Page {
+        private final Font font;
+        private final int[] lookup, mask;
+        private final float[] advances;
+        private final boolean[] blank;
+        private final int cellWidth, cellHeight, width, height;
+        private final double ascent;
+        private final String chars;
+        private int[] kerningKeys = empty(64);
+        private float[] kerningValues = new float[64];
+        private int kerningCount;
+        private final LinkedHashMap<Integer, Image> tints = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Integer, Image> eldest) {
+                return size() > maxTints;
+            }
+        };
+        private int lastRgb = -1;
+        private Image lastTint;
+
+        private Page(Font font) {
+            this.font = font;
+            String chars = characters;
+            this.chars = chars;
+            int n = chars.length(), max = 0;
+            for (int i = 0; i < n; i++)
+                max = Math.max(max, chars.charAt(i));
+            lookup = new int[max + 1];
+            Arrays.fill(lookup, -1);
+            advances = new float[n];
+            float widest = 0;
+            for (int i = 0; i < n; i++) {
+                lookup[chars.charAt(i)] = i;
+                advances[i] = width(font, chars.substring(i, i + 1));
+                widest = Math.max(widest, advances[i]);
+            }
+            measure.setText(chars);
+            ascent = measure.getBaselineOffset();
+            cellWidth = (int) Math.ceil(widest) + PAD * 2;
+            cellHeight = (int) Math.ceil(measure.getBoundsInLocal().getHeight()) + PAD * 2;
+            width = cellWidth * COLUMNS;
+            height = cellHeight * ((n + COLUMNS - 1) / COLUMNS);
+
+            Canvas canvas = new Canvas(width, height);
+            GraphicsContext g = canvas.getGraphicsContext2D();
+            g.setFont(font);
+            g.setFill(Color.WHITE);
+            for (int i = 0; i < n; i++)
+                g.fillText(chars.substring(i, i + 1), (i % COLUMNS) * cellWidth + PAD, (i / COLUMNS) * cellHeight + PAD + ascent);
+            SnapshotParameters parameters = new SnapshotParameters();
+            parameters.setFill(Color.TRANSPARENT);
+            WritableImage image = canvas.snapshot(parameters, null);
+            mask = new int[width * height];
+            image.getPixelReader().getPixels(0, 0, width, height, PixelFormat.getIntArgbInstance(), mask, 0, width);
+
+            blank = new boolean[n];
+            for (int i = 0; i < n; i++) {
+                boolean empty = true;
+                int x0 = (i % COLUMNS) * cellWidth, y0 = (i / COLUMNS) * cellHeight;
+                for (int y = y0; y < y0 + cellHeight && empty; y++)
+                    for (int x = x0; x < x0 + cellWidth; x++)
+                        if ((mask[y * width + x] >>> 24) != 0) {
+                            empty = false;
+                            break;
+                        }
+                blank[i] = empty;
+            }
+        }
+
+        private int glyph(char c) {
+            return c < lookup.length ? lookup[c] : -1;
+        }
+
+        private float kerning(int a, int b) {
+            int key = a * advances.length + b, mask = kerningKeys.length - 1;
+            int slot = (key * 0x9E3779B9) >>> 7 & mask;
+            for (int k; (k = kerningKeys[slot]) >= 0; slot = (slot + 1) & mask)
+                if (k == key)
+                    return kerningValues[slot];
+            float value = width(font, new String(new char[]{chars.charAt(a), chars.charAt(b)})) - advances[a] - advances[b];
+            if (++kerningCount * 2 > kerningKeys.length) {
+                int[] keys = kerningKeys;
+                float[] values = kerningValues;
+                kerningKeys = empty(keys.length * 2);
+                kerningValues = new float[keys.length * 2];
+                for (int i = 0; i < keys.length; i++)
+                    if (keys[i] >= 0)
+                        put(keys[i], values[i]);
+            }
+            put(key, value);
+            return value;
+        }
+
+        private void put(int key, float value) {
+            int mask = kerningKeys.length - 1, slot = (key * 0x9E3779B9) >>> 7 & mask;
+            while (kerningKeys[slot] >= 0)
+                slot = (slot + 1) & mask;
+            kerningKeys[slot] = key;
+            kerningValues[slot] = value;
+        }
+
+        private Image tint(Color color) {
+            int rgb = (int) Math.round(color.getRed() * 255) << 16 | (int) Math.round(color.getGreen() * 255) << 8 | (int) Math.round(color.getBlue() * 255);
+            if (rgb == lastRgb)
+                return lastTint;
+            Image image = tints.get(rgb);
+            if (image == null) {
+                int[] argb = new int[mask.length];
+                for (int i = 0; i < mask.length; i++) {
+                    int a = mask[i] >>> 24;
+                    argb[i] = a == 0 ? 0 : a << 24 | rgb;
+                }
+                WritableImage tinted = new WritableImage(width, height);
+                tinted.getPixelWriter().setPixels(0, 0, width, height, PixelFormat.getIntArgbInstance(), argb, 0, width);
+                tints.put(rgb, tinted);
+                image = tinted;
+            }
+            lastRgb = rgb;
+            lastTint = image;
+            return image;
+        }
+    }
+}
@@ -0,0 +1,54 @@
+/*
+ * Copyright [2022] [Xebisco]
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.xebisco.yieldfx;
+
+/**
+ * Reusable holder filled by {@link InputState#poll(InputRecord)}.
+ */
+public class InputRecord {
+
+    private int type, code, x, y;
+    private long time;
+
+    void set(int type, int code, int x, int y, long time) {
+        this.type = type;
+        this.code = code;
+        this.x = x;
+        this.y = y;
+        this.time = time;
+    }
+
+    public int getType() {
+        return type;
+    }
+
+    public int getCode() {
+        return code;
+    }
+
+    public int getX() {
+        return x;
+    }
+
+    public int getY() {
+        return y;
+    }
+
+    public long getTime() {
+        return time;
+    }
+}
@@ -0,0 +1,268 @@
+/*
+ * Copyright [2022] [Xebisco]
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.xebisco.yieldfx;
+
+import java.util.AbstractSet;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Keyboard and mouse state written by the FX event handlers and read by the game thread without locks.
+ * Keys and buttons are kept in atomic bitsets; a press is also latched, so taps shorter than a frame are still seen. The engine calls {@link #endFrame()}
+ * before the scene reads input, so latches alternate between two generations: a latch set before one {@code endFrame} is cleared by the next one, after
+ * the scene update in between has seen it.
+ * Every change is also pushed, with its {@code System.nanoTime} timestamp, to a bounded single-producer single-consumer ring of {@link InputRecord}s.
+ */
+public class InputState {
+
+    public static final int KEY_PRESSED = 0, KEY_RELEASED = 1, MOUSE_PRESSED = 2, MOUSE_RELEASED = 3, MOUSE_MOVED = 4;
+
+    private static final int KEY_CODES = 1 << 16;
+
+    private final AtomicLongArray down = new AtomicLongArray(KEY_CODES >> 6);
+    private final AtomicLongArray[] latched = {new AtomicLongArray(KEY_CODES >> 6), new AtomicLongArray(KEY_CODES >> 6)};
+    private final AtomicLong[] latchedWords = {new AtomicLong(), new AtomicLong()};
+    private final AtomicLong mouseDown = new AtomicLong();
+    private final AtomicLong[] mouseLatched = {new AtomicLong(), new AtomicLong()};
+    private volatile int generation;
+    private volatile long mouse;
+
+    private final int[] types, codes, xs, ys;
+    private final long[] times;
+    private final int mask;
+    private final AtomicLong head = new AtomicLong(), tail = new AtomicLong();
+    private final AtomicLong dropped = new AtomicLong();
+
+    private final Set<Integer> pressing = new AbstractSet<Integer>() {
+        @Override
+        public boolean contains(Object o) {
+            return o instanceof Integer && isPressing((Integer) o);
+        }
+
+        @Override
+        public Iterator<Integer> iterator() {
+            return new PressingIterator();
+        }
+
+        @Override
+        public int size() {
+            int size = Long.bitCount(mouseBits());
+            for (int i = 0; i < down.length(); i++)
+                size += Long.bitCount(keyBits(i));
+            return size;
+        }
+    };
+
+    public InputState(int capacity) {
+        int size = Integer.highestOneBit(Math.max(2, capacity - 1)) << 1;
+        mask = size - 1;
+        types = new int[size];
+        codes = new int[size];
+        xs = new int[size];
+        ys = new int[size];
+        times = new long[size];
+    }
+
+    public InputState() {
+        this(256);
+    }
+
+    public void keyPressed(int code) {
+        if (code < 0 || code >= KEY_CODES)
+            return;
+        int generation = this.generation;
+        set(down, code);
+        set(latched[generation], code);
+        or(latchedWords[generation], 1L << ((code >> 6) & 63));
+        push(KEY_PRESSED, code);
+    }
+
+    public void keyReleased(int code) {
+        if (code < 0 || code >= KEY_CODES)
+            return;
+        clear(down, code);
+        push(KEY_RELEASED, code);
+    }
+
+    public void mousePressed(int button) {
+        or(mouseDown, 1L << button);
+        or(mouseLatched[generation], 1L << button);
+        push(MOUSE_PRESSED, button);
+    }
+
+    public void mouseReleased(int button) {
+        andNot(mouseDown, 1L << button);
+        push(MOUSE_RELEASED, button);
+    }
+
+    public void mouseMoved(int x, int y) {
+        mouse = (long) x << 32 | (y & 0xFFFFFFFFL);
+        push(MOUSE_MOVED, 0);
+    }
+
+    public void endFrame() {
+        int next = generation ^ 1;
+        AtomicLongArray bits = latched[next];
+        long words = latchedWords[next].getAndSet(0);
+        for (int i = 0; i < bits.length() && words != 0; i++) {
+            if ((words & (1L << (i & 63))) != 0)
+                bits.set(i, 0);
+        }
+        mouseLatched[next].set(0);
+        generation = next;
+    }
+
+    private long keyBits(int word) {
+        return down.get(word) | latched[0].get(word) | latched[1].get(word);
+    }
+
+    private long mouseBits() {
+        return mouseDown.get() | mouseLatched[0].get() | mouseLatched[1].get();
+    }
+
+    public boolean isPressing(int code) {
+        if (code <= 0 && code > -64) {
+            long bit = 1L << -code;
+            return (mouseBits() & bit) != 0;
+        }
+        if (code >= KEY_CODES)
+            return false;
+        long bit = 1L << (code & 63);
+        return (keyBits(code >> 6) & bit) != 0;
+    }
+
+    public boolean isDown(int code) {
+        return code >= 0 && code < KEY_CODES && (down.get(code >> 6) & (1L << (code & 63))) != 0;
+    }
+
+    public boolean isMouseDown(int button) {
+        return (mouseDown.get() & (1L << button)) != 0;
+    }
+
+    public int getMouseX() {
+        return (int) (mouse >> 32);
+    }
+
+    public int getMouseY() {
+        return (int) mouse;
+    }
+
+    private void push(int type, int code) {
+        long t = tail.get();
+        if (t - head.get() > mask) {
+            dropped.incrementAndGet();
+            return;
+        }
+        int i = (int) (t & mask);
+        long m = mouse;
+        types[i] = type;
+        codes[i] = code;
+        xs[i] = (int) (m >> 32);
+        ys[i] = (int) m;
+        times[i] = System.nanoTime();
+        tail.lazySet(t + 1);
+    }
+
+    public boolean poll(InputRecord record) {
+        long h = head.get();
+        if (h == tail.get())
+            return false;
+        int i = (int) (h & mask);
+        record.set(types[i], codes[i], xs[i], ys[i], times[i]);
+        head.lazySet(h + 1);
+        return true;
+    }
+
+    private static void set(AtomicLongArray bits, int code) {
+        long bit = 1L << (code & 63);
+        int i = code >> 6;
+        long v;
+        do {
+            v = bits.get(i);
+        } while (!bits.compareAndSet(i, v, v | bit));
+    }
+
+    private static void clear(AtomicLongArray bits, int code) {
+        long bit = 1L << (code & 63);
+        int i = code >> 6;
+        long v;
+        do {
+            v = bits.get(i);
+        } while (!bits.compareAndSet(i, v, v & ~bit));
+    }
+
+    private static void or(AtomicLong bits, long bit) {
+        long v;
+        do {
+            v = bits.get();
+        } while (!bits.compareAndSet(v, v | bit));
+    }
+
+    private static void andNot(AtomicLong bits, long bit) {
+        long v;
+        do {
+            v = bits.get();
+        } while (!bits.compareAndSet(v, v & ~bit));
+    }
+
+    public Set<Integer> getPressing() {
+        return pressing;
+    }
+
+    public long getDropped() {
+        return dropped.get();
+    }
+
+    public int getCapacity() {
+        return mask + 1;
+    }
+
+    private final class PressingIterator implements Iterator<Integer> {
+        private final long mouseBits = mouseBits();
+        private int mouseIndex, word = -1;
+        private long bits;
+
+        @Override
+        public boolean hasNext() {
+            while (mouseIndex < 64 && (mouseBits >>> mouseIndex) != 0) {
+                if ((mouseBits & (1L << mouseIndex)) != 0)
+                    return true;
+                mouseIndex++;
+            }
+            while (bits == 0) {
+                if (++word >= down.length())
+                    return false;
+                bits = keyBits(word);
+            }
+            return true;
+        }
+
+        @Override
+        public Integer next() {
+            if (!hasNext())
+                throw new NoSuchElementException();
+            if (mouseIndex < 64 && (mouseBits >>> mouseIndex) != 0)
+                return -mouseIndex++;
+            int bit = Long.numberOfTrailingZeros(bits);
+            bits &= bits - 1;
+            return (word << 6) | bit;
+        }
+    }
+}
@@ -0,0 +1,105 @@
+/*
+ * Copyright [2022] [Xebisco]
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.xebisco.yieldfx;
+
+import javafx.geometry.Rectangle2D;
+import javafx.scene.Node;
+import javafx.scene.SnapshotParameters;
+import javafx.scene.image.PixelFormat;
+import javafx.scene.image.WritableImage;
+import javafx.scene.paint.Color;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
+import java.util.function.Consumer;
+
+/**
+ * Render target of a headless {@link YieldFX}: every presented frame is snapshotted into a {@link WritableImage}, optionally copied into a direct ARGB
+ * {@link IntBuffer} and handed to a {@link FrameExporter}. No window is shown while a target is set.
+ */
+public class OffscreenTarget {
+
+    private final SnapshotParameters parameters = new SnapshotParameters();
+    private final boolean bufferEnabled;
+    private WritableImage image;
+    private IntBuffer buffer;
+    private FrameExporter exporter;
+    private Consumer<OffscreenTarget> onFrame;
+    private long frames;
+
+    public OffscreenTarget(boolean bufferEnabled) {
+        this.bufferEnabled = bufferEnabled;
+        parameters.setFill(Color.TRANSPARENT);
+    }
+
+    public OffscreenTarget() {
+        this(false);
+    }
+
+    public void capture(Node node, int width, int height) {
+        if (image == null || (int) image.getWidth() != width || (int) image.getHeight() != height) {
+            image = new WritableImage(width, height);
+            parameters.setViewport(new Rectangle2D(0, 0, width, height));
+            if (bufferEnabled)
+                buffer = ByteBuffer.allocateDirect(width * height * 4).order(ByteOrder.nativeOrder()).asIntBuffer();
+        }
+        node.snapshot(parameters, image);
+        frames++;
+        if (bufferEnabled) {
+            buffer.clear();
+            image.getPixelReader().getPixels(0, 0, width, height, PixelFormat.getIntArgbInstance(), buffer, width);
+            buffer.rewind();
+        }
+        if (exporter != null)
+            exporter.submit(frames, image.getPixelReader(), width, height);
+        if (onFrame != null)
+            onFrame.accept(this);
+    }
+
+    public WritableImage getImage() {
+        return image;
+    }
+
+    public IntBuffer getBuffer() {
+        return buffer;
+    }
+
+    public boolean isBufferEnabled() {
+        return bufferEnabled;
+    }
+
+    public FrameExporter getExporter() {
+        return exporter;
+    }
+
+    public void setExporter(FrameExporter exporter) {
+        this.exporter = exporter;
+    }
+
+    public Consumer<OffscreenTarget> getOnFrame() {
+        return onFrame;
+    }
+
+    public void setOnFrame(Consumer<OffscreenTarget> onFrame) {
+        this.onFrame = onFrame;
+    }
+
+    public long getFrames() {
+        return frames;
+    }
+}
@@ -0,0 +1,177 @@
+/*
+ * Copyright [2022] [Xebisco]
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.xebisco.yieldfx;
+
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Applies per-pixel and neighbourhood functions to non-premultiplied ARGB pixel buffers. Large buffers are split into row bands that run on the common
+ * fork-join pool, so kernels must not keep state between pixels.
+ */
+public final class PixelKernels {
+
+    /**
+     * Maps one ARGB pixel to another.
+     */
+    @FunctionalInterface
+    public interface Pixel {
+        int apply(int argb);
+    }
+
+    /**
+     * Computes the pixel at ({@code x}, {@code y}) from the whole source buffer.
+     */
+    @FunctionalInterface
+    public interface Neighbourhood {
+        int apply(int[] src, int width, int height, int x, int y);
+    }
+
+    private static final int BAND_PIXELS = 64 * 1024;
+
+    private PixelKernels() {
+    }
+
+    /**
+     * Applies {@code kernel} to every pixel of {@code src} into {@code dst}, which may be the same buffer.
+     */
+    public static void apply(int[] src, int[] dst, int width, int height, Pixel kernel) {
+        run(new Band(src, dst, width, height, kernel, null, 0, height));
+    }
+
+    /**
+     * Applies {@code kernel} at every pixel into {@code dst}, which must not be {@code src}.
+     */
+    public static void apply(int[] src, int[] dst, int width, int height, Neighbourhood kernel) {
+        if (src == dst)
+            throw new YieldFXException("YieldFX: A neighbourhood kernel needs a separate destination buffer.");
+        run(new Band(src, dst, width, height, null, kernel, 0, height));
+    }
+
+    private static void run(Band band) {
+        if ((long) band.width * band.height <= BAND_PIXELS)
+            band.compute();
+        else
+            ForkJoinPool.commonPool().invoke(band);
+    }
+
+    /**
+     * Reads the pixel at ({@code x}, {@code y}), clamping the coordinates to the buffer.
+     */
+    public static int at(int[] src, int width, int height, int x, int y) {
+        return src[Math.max(0, Math.min(height - 1, y)) * width + Math.max(0, Math.min(width - 1, x))];
+    }
+
+    /**
+     * Multiplies every channel, alpha included, by the matching channel of {@code tint}.
+     */
+    public static Pixel tint(int tint) {
+        int ta = (tint >>> 24) + 1, tr = ((tint >> 16) & 0xFF) + 1, tg = ((tint >> 8) & 0xFF) + 1, tb = (tint & 0xFF) + 1;
+        return argb -> ((argb >>> 24) * ta >> 8) << 24 | (((argb >> 16) & 0xFF) * tr >> 8) << 16 | (((argb >> 8) & 0xFF) * tg >> 8) << 8 | (argb & 0xFF) * tb >> 8;
+    }
+
+    /**
+     * Replaces every pixel equal to {@code from[i]} with {@code to[i]}; other pixels are kept.
+     */
+    public static Pixel palette(int[] from, int[] to) {
+        if (from.length != to.length)
+            throw new YieldFXException("YieldFX: Palette sizes differ (" + from.length + " and " + to.length + ").");
+        long[] entries = new long[from.length];
+        for (int i = 0; i < from.length; i++)
+            entries[i] = (long) from[i] << 32 | (to[i] & 0xFFFFFFFFL);
+        Arrays.sort(entries);
+        int[] keys = new int[entries.length], values = new int[entries.length];
+        for (int i = 0; i < entries.length; i++) {
+            keys[i] = (int) (entries[i] >> 32);
+            values[i] = (int) entries[i];
+        }
+        return argb -> {
+            int i = Arrays.binarySearch(keys, argb);
+            return i < 0 ? argb : values[i];
+        };
+    }
+
+    /**
+     * Replaces the colour channels with their luma, keeping alpha.
+     */
+    public static Pixel grayscale() {
+        return argb -> {
+            int l = (((argb >> 16) & 0xFF) * 77 + ((argb >> 8) & 0xFF) * 150 + (argb & 0xFF) * 29) >> 8;
+            return argb & 0xFF000000 | l << 16 | l << 8 | l;
+        };
+    }
+
+    /**
+     * Makes pixels with alpha at or above {@code threshold} opaque and clears the rest.
+     */
+    public static Pixel alphaThreshold(int threshold) {
+        return argb -> (argb >>> 24) >= threshold ? argb | 0xFF000000 : 0;
+    }
+
+    /**
+     * Paints transparent pixels that touch an opaque-enough neighbour (4-connected) with {@code color}.
+     */
+    public static Neighbourhood outline(int color, int threshold) {
+        return (src, width, height, x, y) -> {
+            int p = src[y * width + x];
+            if ((p >>> 24) >= threshold)
+                return p;
+            if ((x > 0 && (src[y * width + x - 1] >>> 24) >= threshold) || (x < width - 1 && (src[y * width + x + 1] >>> 24) >= threshold)
+                    || (y > 0 && (src[(y - 1) * width + x] >>> 24) >= threshold) || (y < height - 1 && (src[(y + 1) * width + x] >>> 24) >= threshold))
+                return color;
+            return p;
+        };
+    }
+
+    private static final class Band extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final int[] src, dst;
+        private final int width, height, y0, y1;
+        private final Pixel pixel;
+        private final Neighbourhood neighbourhood;
+
+        private Band(int[] src, int[] dst, int width, int height, Pixel pixel, Neighbourhood neighbourhood, int y0, int y1) {
+            this.src = src;
+            this.dst = dst;
+            this.width = width;
+            this.height = height;
+            this.pixel = pixel;
+            this.neighbourhood = neighbourhood;
+            this.y0 = y0;
+            this.y1 = y1;
+        }
+
+        @Override
+        protected void compute() {
+            if ((long) (y1 - y0) * width > BAND_PIXELS && y1 - y0 > 1) {
+                int mid = (y0 + y1) >>> 1;
+                invokeAll(new Band(src, dst, width, height, pixel, neighbourhood, y0, mid), new Band(src, dst, width, height, pixel, neighbourhood, mid, y1));
+                return;
+            }
+            if (pixel != null) {
+                for (int i = y0 * width, end = y1 * width; i < end; i++)
+                    dst[i] = pixel.apply(src[i]);
+            } else {
+                for (int y = y0; y < y1; y++)
+                    for (int x = 0, i = y * width; x < width; x++, i++)
+                        dst[i] = neighbourhood.apply(src, width, height, x, y);
+            }
+        }
+    }
+}
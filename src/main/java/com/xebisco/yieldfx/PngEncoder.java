@@ -0,0 +1,91 @@
+/*
+ * Copyright [2022] [Xebisco]
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.xebisco.yieldfx;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+
+/**
+ * Minimal 8-bit RGBA PNG encoder over ARGB pixels, so frames can be exported without AWT. Every row uses the Sub filter.
+ */
+public final class PngEncoder {
+
+    private static final byte[] SIGNATURE = {(byte) 137, 80, 78, 71, 13, 10, 26, 10};
+
+    private PngEncoder() {
+    }
+
+    public static void encode(int[] argb, int width, int height, OutputStream out, int level) throws IOException {
+        DataOutputStream data = new DataOutputStream(out);
+        data.write(SIGNATURE);
+
+        ByteArrayOutputStream chunk = new ByteArrayOutputStream(13);
+        DataOutputStream header = new DataOutputStream(chunk);
+        header.writeInt(width);
+        header.writeInt(height);
+        header.writeByte(8);
+        header.writeByte(6);
+        header.writeByte(0);
+        header.writeByte(0);
+        header.writeByte(0);
+        chunk(data, "IHDR", chunk.toByteArray());
+
+        ByteArrayOutputStream compressed = new ByteArrayOutputStream(width * height + 64);
+        Deflater deflater = new Deflater(level);
+        try (DeflaterOutputStream deflate = new DeflaterOutputStream(compressed, deflater, 1 << 16)) {
+            byte[] row = new byte[1 + width * 4];
+            row[0] = 1;
+            for (int y = 0; y < height; y++) {
+                int r = 0, g = 0, b = 0, a = 0;
+                for (int x = 0, i = y * width, j = 1; x < width; x++, i++, j += 4) {
+                    int p = argb[i];
+                    int pr = (p >> 16) & 0xFF, pg = (p >> 8) & 0xFF, pb = p & 0xFF, pa = p >>> 24;
+                    row[j] = (byte) (pr - r);
+                    row[j + 1] = (byte) (pg - g);
+                    row[j + 2] = (byte) (pb - b);
+                    row[j + 3] = (byte) (pa - a);
+                    r = pr;
+                    g = pg;
+                    b = pb;
+                    a = pa;
+                }
+                deflate.write(row);
+            }
+        } finally {
+            deflater.end();
+        }
+        chunk(data, "IDAT", compressed.toByteArray());
+        chunk(data, "IEND", new byte[0]);
+        data.flush();
+    }
+
+    private static void chunk(DataOutputStream out, String type, byte[] data) throws IOException {
+        byte[] name = {(byte) type.charAt(0), (byte) type.charAt(1), (byte) type.charAt(2), (byte) type.charAt(3)};
+        CRC32 crc = new CRC32();
+        crc.update(name);
+        crc.update(data);
+        out.writeInt(data.length);
+        out.write(name);
+        out.write(data);
+        out.writeInt((int) crc.getValue());
+    }
+}
@@ -0,0 +1,68 @@
+/*
+ * Copyright [2022] [Xebisco]
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.xebisco.yieldfx;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Timespan;
+
+@Name("com.xebisco.yieldfx.RenderFrame")
+@Label("Render Frame")
+@Category("YieldFX")
+@Description("One frame presented by the FX thread")
+public class RenderFrameEvent extends jdk.jfr.Event {
+    @Label("Render Time")
+    @Timespan
+    long renderNanos;
+
+    @Label("Game Hand-off Time")
+    @Description("Time the FX thread took to hand the frame slot back to the game thread")
+    @Timespan
+    long handoffNanos;
+
+    @Label("Skipped Frames")
+    long skippedFrames;
+
+    @Label("Rectangles")
+    int rectangles;
+
+    @Label("Ovals")
+    int ovals;
+
+    @Label("Rounded Rectangles")
+    int roundedRectangles;
+
+    @Label("Lines")
+    int lines;
+
+    @Label("Images")
+    int images;
+
+    @Label("Texts")
+    int texts;
+
+    @Label("Text Measures")
+    long textMeasures;
+
+    @Label("Drawn")
+    int drawn;
+
+    @Label("Culled")
+    int culled;
+}
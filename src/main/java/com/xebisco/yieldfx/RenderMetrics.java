@@ -0,0 +1,212 @@
+/*
+ * Copyright [2022] [Xebisco]
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.xebisco.yieldfx;
+
+import com.xebisco.yield.render.RenderableType;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Per-frame render counters and timings. Nothing is measured while disabled; when enabled each frame is also committed as a {@link RenderFrameEvent}
+ * and texture work as {@link TextureWorkEvent}s, so a running game can be inspected with Flight Recorder.
+ */
+public class RenderMetrics {
+
+    private volatile boolean enabled;
+
+    private final int[] drawCalls = new int[RenderableType.values().length];
+    private final int[] lastDrawCalls = new int[drawCalls.length];
+    private volatile long lastRenderNanos, lastHandoffNanos, lastTextMeasures;
+    private volatile int drawn, culled;
+    private final AtomicLong frames = new AtomicLong(), skippedFrames = new AtomicLong();
+
+    private final long[] renderSamples;
+    private int sampleIndex, sampleCount;
+
+    private final AtomicLong textureLoads = new AtomicLong(), textureLoadNanos = new AtomicLong();
+    private final AtomicLong compositions = new AtomicLong(), compositionNanos = new AtomicLong();
+    private final AtomicLong fontLoads = new AtomicLong();
+
+    private final TextCache textCache;
+    private long lastTextMisses;
+
+    public RenderMetrics(TextCache textCache, int window) {
+        this.textCache = textCache;
+        renderSamples = new long[window];
+    }
+
+    public void drawCall(RenderableType type) {
+        drawCalls[type.ordinal()]++;
+    }
+
+    public void culled(int drawn, int culled) {
+        this.drawn = drawn;
+        this.culled = culled;
+    }
+
+    /**
+     * Records a presented frame. {@code handoffNanos} is how long handing the frame slot back to the game thread took on the FX thread, not the time
+     * the game thread spends simulating.
+     */
+    public void frame(long renderNanos, long handoffNanos, long skipped) {
+        lastRenderNanos = renderNanos;
+        lastHandoffNanos = handoffNanos;
+        frames.incrementAndGet();
+        skippedFrames.addAndGet(skipped);
+        long textMisses = textCache.getMisses();
+        long textMeasures = textMisses >= lastTextMisses ? textMisses - lastTextMisses : textMisses;
+        lastTextMisses = textMisses;
+        lastTextMeasures = textMeasures;
+        RenderFrameEvent event = new RenderFrameEvent();
+        if (event.isEnabled()) {
+            event.renderNanos = renderNanos;
+            event.handoffNanos = handoffNanos;
+            event.skippedFrames = skipped;
+            event.rectangles = drawCalls[RenderableType.RECTANGLE.ordinal()];
+            event.ovals = drawCalls[RenderableType.OVAL.ordinal()];
+            event.roundedRectangles = drawCalls[RenderableType.ROUNDED_RECTANGLE.ordinal()];
+            event.lines = drawCalls[RenderableType.LINE.ordinal()];
+            event.images = drawCalls[RenderableType.IMAGE.ordinal()];
+            event.texts = drawCalls[RenderableType.TEXT.ordinal()];
+            event.textMeasures = textMeasures;
+            event.drawn = drawn;
+            event.culled = culled;
+            event.commit();
+        }
+        synchronized (renderSamples) {
+            System.arraycopy(drawCalls, 0, lastDrawCalls, 0, drawCalls.length);
+            renderSamples[sampleIndex] = renderNanos;
+            sampleIndex = (sampleIndex + 1) % renderSamples.length;
+            if (sampleCount < renderSamples.length)
+                sampleCount++;
+        }
+        Arrays.fill(drawCalls, 0);
+    }
+
+    public void textureWork(String operation, long nanos) {
+        if (operation.equals("load")) {
+            textureLoads.incrementAndGet();
+            textureLoadNanos.addAndGet(nanos);
+        } else {
+            compositions.incrementAndGet();
+            compositionNanos.addAndGet(nanos);
+        }
+        TextureWorkEvent event = new TextureWorkEvent();
+        if (event.isEnabled()) {
+            event.operation = operation;
+            event.nanos = nanos;
+            event.commit();
+        }
+    }
+
+    public void fontLoad() {
+        fontLoads.incrementAndGet();
+    }
+
+    public long getRenderPercentile(double percentile) {
+        long[] samples;
+        synchronized (renderSamples) {
+            samples = Arrays.copyOf(renderSamples, sampleCount);
+        }
+        if (samples.length == 0)
+            return 0;
+        Arrays.sort(samples);
+        return samples[(int) Math.min(samples.length - 1, Math.max(0, Math.ceil(percentile / 100.0 * samples.length) - 1))];
+    }
+
+    public int getDrawCalls(RenderableType type) {
+        synchronized (renderSamples) {
+            return lastDrawCalls[type.ordinal()];
+        }
+    }
+
+    public void reset() {
+        synchronized (renderSamples) {
+            sampleIndex = 0;
+            sampleCount = 0;
+        }
+        frames.set(0);
+        skippedFrames.set(0);
+        textureLoads.set(0);
+        textureLoadNanos.set(0);
+        compositions.set(0);
+        compositionNanos.set(0);
+        fontLoads.set(0);
+        lastTextMisses = textCache.getMisses();
+        lastTextMeasures = 0;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public long getLastRenderNanos() {
+        return lastRenderNanos;
+    }
+
+    public long getLastHandoffNanos() {
+        return lastHandoffNanos;
+    }
+
+    public int getDrawn() {
+        return drawn;
+    }
+
+    public int getCulled() {
+        return culled;
+    }
+
+    public long getFrames() {
+        return frames.get();
+    }
+
+    public long getSkippedFrames() {
+        return skippedFrames.get();
+    }
+
+    public long getTextureLoads() {
+        return textureLoads.get();
+    }
+
+    public long getTextureLoadNanos() {
+        return textureLoadNanos.get();
+    }
+
+    public long getCompositions() {
+        return compositions.get();
+    }
+
+    public long getCompositionNanos() {
+        return compositionNanos.get();
+    }
+
+    public long getFontLoads() {
+        return fontLoads.get();
+    }
+
+    /**
+     * Returns how many strings were measured, rather than found in the text cache, since the previous presented frame.
+     */
+    public long getTextMeasures() {
+        return lastTextMeasures;
+    }
+}
@@ -0,0 +1,303 @@
+/*
+ * Copyright [2022] [Xebisco]
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.xebisco.yieldfx;
+
+import com.xebisco.yield.render.RenderableType;
+import javafx.scene.canvas.GraphicsContext;
+import javafx.scene.image.Image;
+import javafx.scene.paint.Paint;
+import javafx.scene.text.Font;
+
+/**
+ * Draws the renderables of a frame, only touching the {@link GraphicsContext} state (transform, fill, line width and font) when it actually changes.
+ */
+public class RenderPass {
+
+    static final double[] SIN = new double[360], COS = new double[360];
+
+    static {
+        for (int i = 0; i < 360; i++) {
+            SIN[i] = Math.sin(Math.toRadians(i));
+            COS[i] = Math.cos(Math.toRadians(i));
+        }
+    }
+
+    private final YieldFX yieldFX;
+    private volatile boolean sortByType;
+
+    private Paint currentFill;
+    private double currentLineWidth;
+    private Font currentFont;
+    private boolean identity;
+    private RenderMetrics metrics;
+    private volatile boolean culling = true;
+    private volatile int indexThreshold = 2048, cellSize = 256;
+    private int[] visible = new int[0];
+    private int drawn, culled;
+    private double scale = 1;
+    private final GlyphAtlas glyphAtlas = new GlyphAtlas();
+    private volatile boolean glyphText;
+
+    public RenderPass(YieldFX yieldFX) {
+        this.yieldFX = yieldFX;
+    }
+
+    /**
+     * Sets the transform to a rotation of {@code angle} degrees around ({@code px}, {@code py}). Whole-degree angles are read from the lookup table and
+     * fractional ones are computed exactly, so the result matches a {@code Rotate} of the same angle.
+     */
+    public static void setRotation(GraphicsContext g, float angle, float px, float py) {
+        double cos, sin;
+        if (angle == Math.rint(angle)) {
+            int a = Math.floorMod((int) angle, 360);
+            cos = COS[a];
+            sin = SIN[a];
+        } else {
+            double radians = Math.toRadians(angle);
+            cos = Math.cos(radians);
+            sin = Math.sin(radians);
+        }
+        g.setTransform(cos, sin, -sin, cos, px - px * cos + py * sin, py - px * sin - py * cos);
+    }
+
+    public void begin(GraphicsContext g) {
+        g.setTransform(scale, 0, 0, scale, 0, 0);
+        identity = true;
+        currentFill = g.getFill();
+        currentLineWidth = g.getLineWidth();
+        currentFont = g.getFont();
+        metrics = yieldFX.getMetrics().isEnabled() ? yieldFX.getMetrics() : null;
+    }
+
+    public void render(GraphicsContext g, FrameBuffer frame) {
+        sort(frame);
+        render(g, frame, 0);
+    }
+
+    public void render(GraphicsContext g, FrameBuffer frame, int from) {
+        DrawCommand[] commands = frame.getCommands();
+        int n = frame.getSize();
+        drawn = 0;
+        if (!culling) {
+            for (int i = from; i < n; i++)
+                draw(g, commands[i]);
+            drawn = Math.max(0, n - from);
+        } else {
+            float width = (float) (g.getCanvas().getWidth() / scale), height = (float) (g.getCanvas().getHeight() / scale);
+            SpatialGrid grid = frame.getGrid();
+            if (grid != null) {
+                if (visible.length < n)
+                    visible = new int[Math.max(n, visible.length * 2)];
+                int count = grid.query(0, 0, width, height, from, visible);
+                for (int k = 0; k < count; k++) {
+                    DrawCommand command = commands[visible[k]];
+                    if (command.intersects(0, 0, width, height)) {
+                        draw(g, command);
+                        drawn++;
+                    }
+                }
+            } else {
+                for (int i = from; i < n; i++) {
+                    if (commands[i].intersects(0, 0, width, height)) {
+                        draw(g, commands[i]);
+                        drawn++;
+                    }
+                }
+            }
+        }
+        culled = Math.max(0, n - from) - drawn;
+        if (metrics != null)
+            metrics.culled(drawn, culled);
+    }
+
+    public boolean isVisible(GraphicsContext g, DrawCommand command) {
+        return !culling || command.intersects(0, 0, (float) (g.getCanvas().getWidth() / scale), (float) (g.getCanvas().getHeight() / scale));
+    }
+
+    /**
+     * Groups the commands of the frame by type and image when {@code sortByType} is on. {@link YieldFX} sorts each frame on the game thread, before it is
+     * indexed, so this is a no-op for frames it hands to the FX thread.
+     */
+    public void sort(FrameBuffer frame) {
+        if (sortByType)
+            frame.sortByType();
+    }
+
+    public void end(GraphicsContext g) {
+        if (!identity || scale != 1) {
+            g.setTransform(1, 0, 0, 1, 0, 0);
+            identity = true;
+        }
+    }
+
+    private void fill(GraphicsContext g, Paint paint) {
+        if (paint != currentFill && (paint == null || !paint.equals(currentFill))) {
+            g.setFill(paint);
+            currentFill = paint;
+        }
+    }
+
+    private void lineWidth(GraphicsContext g, double lineWidth) {
+        if (lineWidth != currentLineWidth) {
+            g.setLineWidth(lineWidth);
+            currentLineWidth = lineWidth;
+        }
+    }
+
+    private void font(GraphicsContext g, Font font) {
+        if (font != currentFont) {
+            g.setFont(font);
+            currentFont = font;
+        }
+    }
+
+    private void transform(GraphicsContext g, DrawCommand renderable) {
+        int a = Math.floorMod(-renderable.getRotation(), 360);
+        if (a == 0) {
+            if (!identity) {
+                g.setTransform(scale, 0, 0, scale, 0, 0);
+                identity = true;
+            }
+        } else {
+            double cos = COS[a] * scale, sin = SIN[a] * scale, px = renderable.getX(), py = renderable.getY();
+            g.setTransform(cos, sin, -sin, cos, px * scale - px * cos + py * sin, py * scale - px * sin - py * cos);
+            identity = false;
+        }
+    }
+
+    public void draw(GraphicsContext g, DrawCommand renderable) {
+        if (metrics != null)
+            metrics.drawCall(renderable.getType());
+        if (renderable.getType() != RenderableType.IMAGE)
+            fill(g, renderable.getColor());
+        transform(g, renderable);
+        float x = renderable.getX() - renderable.getWidth() / 2f, y = renderable.getY() - renderable.getHeight() / 2f;
+        switch (renderable.getType()) {
+            case LINE:
+                lineWidth(g, renderable.getThickness());
+                g.strokeLine(x, y, renderable.getX() + renderable.getWidth() / 2f, renderable.getY() + renderable.getHeight() / 2f);
+                break;
+            case RECTANGLE:
+                if (renderable.isFilled())
+                    g.fillRect(x, y, renderable.getWidth(), renderable.getHeight());
+                else {
+                    lineWidth(g, renderable.getThickness());
+                    g.strokeRect(x, y, renderable.getWidth(), renderable.getHeight());
+                }
+                break;
+            case OVAL:
+                if (renderable.isFilled())
+                    g.fillOval(x, y, renderable.getWidth(), renderable.getHeight());
+                else {
+                    lineWidth(g, renderable.getThickness());
+                    g.strokeOval(x, y, renderable.getWidth(), renderable.getHeight());
+                }
+                break;
+            case ROUNDED_RECTANGLE:
+                if (renderable.isFilled())
+                    g.fillRoundRect(x, y, renderable.getWidth(), renderable.getHeight(), renderable.getArcWidth(), renderable.getArcHeight());
+                else {
+                    lineWidth(g, renderable.getThickness());
+                    g.strokeRoundRect(x, y, renderable.getWidth(), renderable.getHeight(), renderable.getArcWidth(), renderable.getArcHeight());
+                }
+                break;
+            case IMAGE:
+                Object image = renderable.getSpecific();
+                if (image instanceof EvictedTexture)
+                    image = yieldFX.getTextures().resolve((EvictedTexture) image);
+                if (yieldFX.getTextures().getBudget() > 0)
+                    yieldFX.getTextures().touch(image);
+                if (image instanceof TextureView)
+                    ((TextureView) image).draw(g, x, y, renderable.getWidth(), renderable.getHeight());
+                else
+                    g.drawImage((Image) image, x, y, renderable.getWidth(), renderable.getHeight());
+                break;
+            case TEXT:
+                TextCache.Metrics text = yieldFX.getTextCache().get((String) renderable.getSpecific());
+                float tx = renderable.getX() - text.getWidth() / 2f, ty = renderable.getY() + text.getHeight() / 4f;
+                if (!glyphText || !glyphAtlas.draw(g, text, renderable.getColor(), tx, ty)) {
+                    font(g, text.getFont());
+                    g.fillText(text.getText(), tx, ty);
+                }
+                break;
+        }
+    }
+
+    public YieldFX getYieldFX() {
+        return yieldFX;
+    }
+
+    public boolean isSortByType() {
+        return sortByType;
+    }
+
+    public void setSortByType(boolean sortByType) {
+        this.sortByType = sortByType;
+    }
+
+    public double getScale() {
+        return scale;
+    }
+
+    public void setScale(double scale) {
+        this.scale = scale;
+    }
+
+    public GlyphAtlas getGlyphAtlas() {
+        return glyphAtlas;
+    }
+
+    public boolean isGlyphText() {
+        return glyphText;
+    }
+
+    public void setGlyphText(boolean glyphText) {
+        this.glyphText = glyphText;
+    }
+
+    public boolean isCulling() {
+        return culling;
+    }
+
+    public void setCulling(boolean culling) {
+        this.culling = culling;
+    }
+
+    public int getIndexThreshold() {
+        return indexThreshold;
+    }
+
+    public void setIndexThreshold(int indexThreshold) {
+        this.indexThreshold = indexThreshold;
+    }
+
+    public int getCellSize() {
+        return cellSize;
+    }
+
+    public void setCellSize(int cellSize) {
+        this.cellSize = cellSize;
+    }
+
+    public int getDrawn() {
+        return drawn;
+    }
+
+    public int getCulled() {
+        return culled;
+    }
+}
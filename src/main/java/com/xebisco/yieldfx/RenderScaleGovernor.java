@@ -0,0 +1,155 @@
+/*
+ * Copyright [2022] [Xebisco]
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.xebisco.yieldfx;
+
+/**
+ * Adjusts the render scale to hold a target frame time. Frame intervals are smoothed; the scale drops by one step as soon as frames run long, and is
+ * raised again only after {@code upFrames} frames on target. A raise that makes frames run long again doubles the wait before the next one.
+ */
+public class RenderScaleGovernor {
+
+    private volatile boolean enabled;
+    private volatile long target = 1_000_000_000L / 60;
+    private double minScale = 0.5, maxScale = 1, step = 0.1;
+    private double smoothing = 0.1, slack = 1.1;
+    private int upFrames = 120, cooldownFrames = 30;
+
+    private double smoothed;
+    private int onTarget, cooldown, wait = upFrames;
+    private boolean raised;
+
+    public double update(long frameNanos, double scale) {
+        smoothed = smoothed == 0 ? frameNanos : smoothed + (frameNanos - smoothed) * smoothing;
+        if (cooldown > 0) {
+            cooldown--;
+            return scale;
+        }
+        if (smoothed > target * slack) {
+            onTarget = 0;
+            wait = raised ? Math.min(wait * 2, upFrames * 16) : wait;
+            raised = false;
+            return change(scale - step, scale);
+        }
+        if (++onTarget >= wait && scale < maxScale) {
+            onTarget = 0;
+            raised = true;
+            return change(scale + step, scale);
+        }
+        if (onTarget >= upFrames * 4) {
+            raised = false;
+            wait = upFrames;
+        }
+        return scale;
+    }
+
+    private double change(double next, double scale) {
+        next = Math.max(minScale, Math.min(maxScale, Math.round(next / step) * step));
+        if (next != scale) {
+            cooldown = cooldownFrames;
+            smoothed = 0;
+        }
+        return next;
+    }
+
+    public void reset() {
+        smoothed = 0;
+        onTarget = 0;
+        cooldown = 0;
+        wait = upFrames;
+        raised = false;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public long getTarget() {
+        return target;
+    }
+
+    public void setTarget(long target) {
+        this.target = target;
+    }
+
+    public void setTargetFps(int fps) {
+        target = 1_000_000_000L / Math.max(1, fps);
+    }
+
+    public double getMinScale() {
+        return minScale;
+    }
+
+    public void setMinScale(double minScale) {
+        this.minScale = minScale;
+    }
+
+    public double getMaxScale() {
+        return maxScale;
+    }
+
+    public void setMaxScale(double maxScale) {
+        this.maxScale = maxScale;
+    }
+
+    public double getStep() {
+        return step;
+    }
+
+    public void setStep(double step) {
+        this.step = step;
+    }
+
+    public double getSmoothing() {
+        return smoothing;
+    }
+
+    public void setSmoothing(double smoothing) {
+        this.smoothing = smoothing;
+    }
+
+    public double getSlack() {
+        return slack;
+    }
+
+    public void setSlack(double slack) {
+        this.slack = slack;
+    }
+
+    public int getUpFrames() {
+        return upFrames;
+    }
+
+    public void setUpFrames(int upFrames) {
+        this.upFrames = upFrames;
+    }
+
+    public int getCooldownFrames() {
+        return cooldownFrames;
+    }
+
+    public void setCooldownFrames(int cooldownFrames) {
+        this.cooldownFrames = cooldownFrames;
+    }
+
+    public double getSmoothed() {
+        return smoothed;
+    }
+}
@@ -0,0 +1,186 @@
+/*
+ * Copyright [2022] [Xebisco]
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.xebisco.yieldfx;
+
+import javafx.scene.image.Image;
+import javafx.scene.image.PixelFormat;
+import javafx.scene.image.WritableImage;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Resamples ARGB pixel buffers, splitting large outputs into row bands that run on the common fork-join pool.
+ */
+public final class Resampler {
+
+    public enum Filter {
+        NEAREST, BILINEAR, AREA
+    }
+
+    private static final int BAND_PIXELS = 64 * 1024;
+
+    private Resampler() {
+    }
+
+    public static WritableImage resample(Image input, int width, int height, Filter filter) {
+        int sw = (int) input.getWidth(), sh = (int) input.getHeight();
+        int[] src = new int[sw * sh];
+        input.getPixelReader().getPixels(0, 0, sw, sh, PixelFormat.getIntArgbInstance(), src, 0, sw);
+        return toImage(resample(src, sw, sh, width, height, filter), width, height);
+    }
+
+    public static WritableImage toImage(int[] argb, int width, int height) {
+        WritableImage image = new WritableImage(width, height);
+        image.getPixelWriter().setPixels(0, 0, width, height, PixelFormat.getIntArgbInstance(), argb, 0, width);
+        return image;
+    }
+
+    public static int[] resample(int[] src, int sw, int sh, int dw, int dh, Filter filter) {
+        if (dw <= 0 || dh <= 0)
+            throw new YieldFXException("YieldFX: Cannot resample to " + dw + "x" + dh + ".");
+        int[] dst = new int[dw * dh];
+        if (sw == dw && sh == dh) {
+            System.arraycopy(src, 0, dst, 0, dst.length);
+            return dst;
+        }
+        Band band = new Band(src, sw, sh, dst, dw, dh, filter, 0, dh);
+        if ((long) dw * dh <= BAND_PIXELS)
+            band.compute();
+        else
+            ForkJoinPool.commonPool().invoke(band);
+        return dst;
+    }
+
+    private static void nearest(int[] src, int sw, int sh, int[] dst, int dw, int dh, int y0, int y1) {
+        int[] xs = new int[dw];
+        for (int x = 0; x < dw; x++)
+            xs[x] = (int) (((2L * x + 1) * sw) / (2L * dw));
+        for (int y = y0; y < y1; y++) {
+            int s = (int) (((2L * y + 1) * sh) / (2L * dh)) * sw, d = y * dw;
+            for (int x = 0; x < dw; x++)
+                dst[d + x] = src[s + xs[x]];
+        }
+    }
+
+    private static void bilinear(int[] src, int sw, int sh, int[] dst, int dw, int dh, int y0, int y1) {
+        int[] xa = new int[dw], xb = new int[dw];
+        float[] xf = new float[dw];
+        for (int x = 0; x < dw; x++) {
+            float fx = Math.max(0f, Math.min(sw - 1f, (x + .5f) * sw / dw - .5f));
+            xa[x] = (int) fx;
+            xb[x] = Math.min(xa[x] + 1, sw - 1);
+            xf[x] = fx - xa[x];
+        }
+        for (int y = y0; y < y1; y++) {
+            float fy = Math.max(0f, Math.min(sh - 1f, (y + .5f) * sh / dh - .5f));
+            int ya = (int) fy, yb = Math.min(ya + 1, sh - 1);
+            float wy = fy - ya;
+            int ra = ya * sw, rb = yb * sw, d = y * dw;
+            for (int x = 0; x < dw; x++) {
+                float wx = xf[x];
+                float w00 = (1 - wx) * (1 - wy), w10 = wx * (1 - wy), w01 = (1 - wx) * wy, w11 = wx * wy;
+                int p00 = src[ra + xa[x]], p10 = src[ra + xb[x]], p01 = src[rb + xa[x]], p11 = src[rb + xb[x]];
+                float a00 = (p00 >>> 24) * w00, a10 = (p10 >>> 24) * w10, a01 = (p01 >>> 24) * w01, a11 = (p11 >>> 24) * w11;
+                float a = a00 + a10 + a01 + a11;
+                if (a <= 0f) {
+                    dst[d + x] = 0;
+                    continue;
+                }
+                float r = ((p00 >> 16) & 0xFF) * a00 + ((p10 >> 16) & 0xFF) * a10 + ((p01 >> 16) & 0xFF) * a01 + ((p11 >> 16) & 0xFF) * a11;
+                float g = ((p00 >> 8) & 0xFF) * a00 + ((p10 >> 8) & 0xFF) * a10 + ((p01 >> 8) & 0xFF) * a01 + ((p11 >> 8) & 0xFF) * a11;
+                float b = (p00 & 0xFF) * a00 + (p10 & 0xFF) * a10 + (p01 & 0xFF) * a01 + (p11 & 0xFF) * a11;
+                dst[d + x] = argb(a, r / a, g / a, b / a);
+            }
+        }
+    }
+
+    private static void area(int[] src, int sw, int sh, int[] dst, int dw, int dh, int y0, int y1) {
+        double sx = (double) sw / dw, sy = (double) sh / dh;
+        for (int y = y0; y < y1; y++) {
+            double top = y * sy, bottom = Math.min(sh, (y + 1) * sy);
+            int d = y * dw;
+            for (int x = 0; x < dw; x++) {
+                double left = x * sx, right = Math.min(sw, (x + 1) * sx);
+                double a = 0, r = 0, g = 0, b = 0, area = 0;
+                for (int py = (int) top; py < bottom; py++) {
+                    double h = Math.min(bottom, py + 1) - Math.max(top, py);
+                    int row = py * sw;
+                    for (int px = (int) left; px < right; px++) {
+                        double w = h * (Math.min(right, px + 1) - Math.max(left, px));
+                        int p = src[row + px];
+                        double pa = (p >>> 24) * w;
+                        a += pa;
+                        r += ((p >> 16) & 0xFF) * pa;
+                        g += ((p >> 8) & 0xFF) * pa;
+                        b += (p & 0xFF) * pa;
+                        area += w;
+                    }
+                }
+                dst[d + x] = a <= 0 ? 0 : argb((float) (a / area), (float) (r / a), (float) (g / a), (float) (b / a));
+            }
+        }
+    }
+
+    private static int argb(float a, float r, float g, float b) {
+        return clamp(a) << 24 | clamp(r) << 16 | clamp(g) << 8 | clamp(b);
+    }
+
+    private static int clamp(float v) {
+        return Math.max(0, Math.min(255, Math.round(v)));
+    }
+
+    private static final class Band extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final int[] src, dst;
+        private final int sw, sh, dw, dh, y0, y1;
+        private final Filter filter;
+
+        private Band(int[] src, int sw, int sh, int[] dst, int dw, int dh, Filter filter, int y0, int y1) {
+            this.src = src;
+            this.sw = sw;
+            this.sh = sh;
+            this.dst = dst;
+            this.dw = dw;
+            this.dh = dh;
+            this.filter = filter;
+            this.y0 = y0;
+            this.y1 = y1;
+        }
+
+        @Override
+        protected void compute() {
+            if ((long) (y1 - y0) * dw > BAND_PIXELS && y1 - y0 > 1) {
+                int mid = (y0 + y1) >>> 1;
+                invokeAll(new Band(src, sw, sh, dst, dw, dh, filter, y0, mid), new Band(src, sw, sh, dst, dw, dh, filter, mid, y1));
+                return;
+            }
+            switch (filter) {
+                case NEAREST:
+                    nearest(src, sw, sh, dst, dw, dh, y0, y1);
+                    break;
+                case BILINEAR:
+                    bilinear(src, sw, sh, dst, dw, dh, y0, y1);
+                    break;
+                case AREA:
+                    area(src, sw, sh, dst, dw, dh, y0, y1);
+                    break;
+            }
+        }
+    }
+}
@@ -0,0 +1,249 @@
+/*
+ * Copyright [2022] [Xebisco]
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.xebisco.yieldfx;
+
+import java.util.Arrays;
+
+/**
+ * Uniform grid over the draw command indices of a {@link FrameBuffer}. The grid is kept between fills and only the commands whose cell range changed are moved,
+ * so a mostly still scene costs little to index. Commands covering too many cells, like text whose size isn't known before drawing, are kept in a separate
+ * list that every query visits.
+ */
+public class SpatialGrid {
+
+    private static final int MAX_CELLS = 16;
+
+    private final int cellSize;
+    private long[] keys = new long[64];
+    private int[] slots = empty(64);
+    private int[][] cells = new int[16][];
+    private int[] cellSizes = new int[16];
+    private int cellCount;
+    private int[] oversize = new int[16];
+    private int oversizeCount;
+
+    private int[] x0 = new int[0], y0 = new int[0], x1 = new int[0], y1 = new int[0];
+    private int size;
+
+    private int[] stamps = new int[0];
+    private int stamp;
+
+    public SpatialGrid(int cellSize) {
+        this.cellSize = cellSize;
+    }
+
+    public void update(DrawCommand[] commands, int n) {
+        if (cellCount > Math.max(1024, n * 4))
+            clear();
+        if (x0.length < n) {
+            int length = Math.max(n, x0.length * 2);
+            x0 = Arrays.copyOf(x0, length);
+            y0 = Arrays.copyOf(y0, length);
+            x1 = Arrays.copyOf(x1, length);
+            y1 = Arrays.copyOf(y1, length);
+            stamps = Arrays.copyOf(stamps, length);
+        }
+        for (int i = 0; i < n; i++) {
+            DrawCommand command = commands[i];
+            int cx0, cy0, cx1, cy1;
+            if (Float.isInfinite(command.getMinX()) || Float.isInfinite(command.getMinY()) || Float.isInfinite(command.getMaxX()) || Float.isInfinite(command.getMaxY())) {
+                cx0 = cy0 = 1;
+                cx1 = cy1 = 0;
+            } else {
+                cx0 = cell(command.getMinX());
+                cy0 = cell(command.getMinY());
+                cx1 = cell(command.getMaxX());
+                cy1 = cell(command.getMaxY());
+                if ((long) (cx1 - cx0 + 1) * (cy1 - cy0 + 1) > MAX_CELLS) {
+                    cx0 = cy0 = 1;
+                    cx1 = cy1 = 0;
+                }
+            }
+            if (i < size) {
+                if (cx0 == x0[i] && cy0 == y0[i] && cx1 == x1[i] && cy1 == y1[i])
+                    continue;
+                remove(i);
+            }
+            x0[i] = cx0;
+            y0[i] = cy0;
+            x1[i] = cx1;
+            y1[i] = cy1;
+            insert(i);
+        }
+        for (int i = n; i < size; i++)
+            remove(i);
+        size = n;
+    }
+
+    public void clear() {
+        Arrays.fill(slots, -1);
+        Arrays.fill(cellSizes, 0);
+        cellCount = 0;
+        oversizeCount = 0;
+        size = 0;
+    }
+
+    /**
+     * Writes to {@code out}, in ascending order, the indices from {@code from} on whose cells touch the given rectangle, and returns how many were written.
+     */
+    public int query(float minX, float minY, float maxX, float maxY, int from, int[] out) {
+        if (++stamp == 0) {
+            Arrays.fill(stamps, 0);
+            stamp = 1;
+        }
+        int count = 0;
+        for (int i = 0; i < oversizeCount; i++)
+            count = collect(oversize[i], from, out, count);
+        int cx0 = cell(minX), cy0 = cell(minY), cx1 = cell(maxX), cy1 = cell(maxY);
+        for (int cy = cy0; cy <= cy1; cy++) {
+            for (int cx = cx0; cx <= cx1; cx++) {
+                int slot = find(key(cx, cy));
+                if (slot < 0)
+                    continue;
+                int[] cell = cells[slot];
+                for (int i = 0, m = cellSizes[slot]; i < m; i++)
+                    count = collect(cell[i], from, out, count);
+            }
+        }
+        Arrays.sort(out, 0, count);
+        return count;
+    }
+
+    private int collect(int index, int from, int[] out, int count) {
+        if (index < from || stamps[index] == stamp)
+            return count;
+        stamps[index] = stamp;
+        out[count] = index;
+        return count + 1;
+    }
+
+    private void insert(int i) {
+        if (x0[i] > x1[i]) {
+            if (oversizeCount == oversize.length)
+                oversize = Arrays.copyOf(oversize, oversizeCount * 2);
+            oversize[oversizeCount++] = i;
+            return;
+        }
+        for (int cy = y0[i]; cy <= y1[i]; cy++) {
+            for (int cx = x0[i]; cx <= x1[i]; cx++) {
+                int slot = slot(key(cx, cy));
+                int[] cell = cells[slot];
+                if (cellSizes[slot] == cell.length)
+                    cells[slot] = cell = Arrays.copyOf(cell, cell.length * 2);
+                cell[cellSizes[slot]++] = i;
+            }
+        }
+    }
+
+    private void remove(int i) {
+        if (x0[i] > x1[i]) {
+            oversizeCount = removeFrom(oversize, oversizeCount, i);
+            return;
+        }
+        for (int cy = y0[i]; cy <= y1[i]; cy++) {
+            for (int cx = x0[i]; cx <= x1[i]; cx++) {
+                int slot = find(key(cx, cy));
+                if (slot >= 0)
+                    cellSizes[slot] = removeFrom(cells[slot], cellSizes[slot], i);
+            }
+        }
+    }
+
+    private static int removeFrom(int[] list, int count, int value) {
+        for (int j = 0; j < count; j++) {
+            if (list[j] == value) {
+                list[j] = list[count - 1];
+                return count - 1;
+            }
+        }
+        return count;
+    }
+
+    private int cell(float v) {
+        return (int) Math.floor(v / cellSize);
+    }
+
+    private static long key(int cx, int cy) {
+        return (long) cx << 32 | (cy & 0xFFFFFFFFL);
+    }
+
+    private int find(long key) {
+        int mask = keys.length - 1;
+        for (int h = hash(key) & mask; slots[h] >= 0; h = (h + 1) & mask)
+            if (keys[h] == key)
+                return slots[h];
+        return -1;
+    }
+
+    private int slot(long key) {
+        int found = find(key);
+        if (found >= 0)
+            return found;
+        if ((cellCount + 1) * 2 > keys.length)
+            rehash();
+        if (cellCount == cells.length) {
+            cells = Arrays.copyOf(cells, cellCount * 2);
+            cellSizes = Arrays.copyOf(cellSizes, cellCount * 2);
+        }
+        if (cells[cellCount] == null)
+            cells[cellCount] = new int[4];
+        put(key, cellCount);
+        return cellCount++;
+    }
+
+    private void put(long key, int slot) {
+        int mask = keys.length - 1;
+        int h = hash(key) & mask;
+        while (slots[h] >= 0)
+            h = (h + 1) & mask;
+        keys[h] = key;
+        slots[h] = slot;
+    }
+
+    private void rehash() {
+        long[] oldKeys = keys;
+        int[] oldSlots = slots;
+        keys = new long[oldKeys.length * 2];
+        slots = empty(oldKeys.length * 2);
+        for (int i = 0; i < oldKeys.length; i++)
+            if (oldSlots[i] >= 0)
+                put(oldKeys[i], oldSlots[i]);
+    }
+
+    private static int[] empty(int length) {
+        int[] slots = new int[length];
+        Arrays.fill(slots, -1);
+        return slots;
+    }
+
+    private static int hash(long key) {
+        long h = key * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32));
+    }
+
+    public int getCellSize() {
+        return cellSize;
+    }
+
+    public int getCellCount() {
+        return cellCount;
+    }
+
+    public int getSize() {
+        return size;
+    }
+}
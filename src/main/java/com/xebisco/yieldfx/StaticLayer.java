@@ -0,0 +1,204 @@
+/*
+ * Copyright [2022] [Xebisco]
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.xebisco.yieldfx;
+
+import com.xebisco.yield.render.Renderable;
+import com.xebisco.yield.render.RenderableType;
+import javafx.scene.canvas.Canvas;
+import javafx.scene.canvas.GraphicsContext;
+import javafx.scene.paint.Color;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.Set;
+
+/**
+ * Opt-in retained layer drawn behind the main canvas. The leading run of the frame, in draw order, made of renderables that were {@link #mark marked} static or
+ * that haven't changed for {@code detectFrames} frames, is drawn into this layer's own {@link Canvas} and kept there until one of those commands, the background
+ * or the canvas size changes. Only the remaining commands are redrawn every frame. Because only the leading run is cached, drawing order is never altered.
+ * Commands compare images by identity, so pixels written in place are only picked up after {@link #invalidate()}, which {@link YieldFX} calls on every
+ * texture write.
+ */
+public class StaticLayer {
+
+    private final Canvas main, canvas = new Canvas();
+    private final TextureRegistry textures;
+    private final GraphicsContext g = canvas.getGraphicsContext2D();
+    private final Set<Renderable> marked = Collections.synchronizedSet(Collections.newSetFromMap(new IdentityHashMap<>()));
+    private volatile boolean enabled;
+    private int detectFrames = 30;
+
+    private DrawCommand[] cached = new DrawCommand[0], previous = new DrawCommand[0];
+    private int[] stable = new int[0];
+    private int cachedSize, previousSize;
+    private Color cachedBgColor;
+    private boolean valid;
+    private volatile boolean stale;
+    private long redraws;
+
+    public StaticLayer(Canvas main, TextureRegistry textures) {
+        this.main = main;
+        this.textures = textures;
+        g.setImageSmoothing(false);
+        canvas.setVisible(false);
+    }
+
+    public void mark(Renderable renderable) {
+        marked.add(renderable);
+    }
+
+    public void unmark(Renderable renderable) {
+        marked.remove(renderable);
+    }
+
+    public boolean isMarked(Renderable renderable) {
+        return !marked.isEmpty() && marked.contains(renderable);
+    }
+
+    /**
+     * Brings the layer up to date with the given frame and returns how many of its leading commands the layer covers. Must be called on the FX thread.
+     */
+    public int update(RenderPass renderPass, FrameBuffer frame) {
+        if (!enabled) {
+            if (canvas.isVisible()) {
+                canvas.setVisible(false);
+                reset();
+            }
+            return 0;
+        }
+        canvas.setScaleX(main.getScaleX());
+        canvas.setScaleY(main.getScaleY());
+        canvas.setTranslateX(main.getTranslateX());
+        canvas.setTranslateY(main.getTranslateY());
+        if (canvas.getWidth() != main.getWidth() || canvas.getHeight() != main.getHeight()) {
+            canvas.setWidth(main.getWidth());
+            canvas.setHeight(main.getHeight());
+            valid = false;
+        }
+        canvas.setVisible(true);
+        if (stale) {
+            stale = false;
+            valid = false;
+        }
+
+        DrawCommand[] commands = frame.getCommands();
+        int n = frame.getSize(), run = 0;
+        if (detectFrames > 0)
+            detect(commands, n);
+        while (run < n && (commands[run].isMarked() || (detectFrames > 0 && stable[run] >= detectFrames)))
+            run++;
+
+        if (!valid || run != cachedSize || !frame.getBgColor().equals(cachedBgColor) || !same(commands, cached, run)) {
+            cached = copy(commands, run, cached, cachedSize);
+            cachedSize = run;
+            cachedBgColor = frame.getBgColor();
+            g.setFill(cachedBgColor);
+            g.clearRect(0, 0, canvas.getWidth(), canvas.getHeight());
+            g.fillRect(0, 0, canvas.getWidth(), canvas.getHeight());
+            renderPass.begin(g);
+            for (int i = 0; i < run; i++)
+                if (renderPass.isVisible(g, cached[i]))
+                    renderPass.draw(g, cached[i]);
+            renderPass.end(g);
+            valid = true;
+            redraws++;
+        } else if (textures.getBudget() > 0) {
+            for (int i = 0; i < run; i++)
+                if (cached[i].getType() == RenderableType.IMAGE)
+                    textures.touch(cached[i].getSpecific());
+        }
+        return run;
+    }
+
+    private void detect(DrawCommand[] commands, int n) {
+        if (stable.length < n)
+            stable = Arrays.copyOf(stable, Math.max(n, stable.length * 2));
+        for (int i = 0; i < n; i++) {
+            if (i < previousSize && commands[i].equals(previous[i])) {
+                if (stable[i] < Integer.MAX_VALUE)
+                    stable[i]++;
+            } else {
+                stable[i] = 0;
+            }
+        }
+        previous = copy(commands, n, previous, previousSize);
+        previousSize = n;
+    }
+
+    private static boolean same(DrawCommand[] a, DrawCommand[] b, int n) {
+        for (int i = 0; i < n; i++)
+            if (!a[i].equals(b[i]))
+                return false;
+        return true;
+    }
+
+    private static DrawCommand[] copy(DrawCommand[] from, int n, DrawCommand[] to, int oldSize) {
+        if (to.length < n) {
+            int old = to.length;
+            to = Arrays.copyOf(to, Math.max(n, old * 2));
+            for (int i = old; i < to.length; i++)
+                to[i] = new DrawCommand();
+        }
+        for (int i = 0; i < n; i++)
+            to[i].set(from[i]);
+        for (int i = n; i < oldSize; i++)
+            to[i].clear();
+        return to;
+    }
+
+    /**
+     * Redraws the cached run on the next update. Can be called from any thread.
+     */
+    public void invalidate() {
+        stale = true;
+    }
+
+    private void reset() {
+        valid = false;
+        cachedSize = 0;
+        previousSize = 0;
+    }
+
+    public Canvas getCanvas() {
+        return canvas;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public int getDetectFrames() {
+        return detectFrames;
+    }
+
+    public void setDetectFrames(int detectFrames) {
+        this.detectFrames = detectFrames;
+    }
+
+    public int getCachedSize() {
+        return cachedSize;
+    }
+
+    public long getRedraws() {
+        return redraws;
+    }
+}
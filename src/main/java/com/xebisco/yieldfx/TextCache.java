@@ -0,0 +1,211 @@
+/*
+ * Copyright [2022] [Xebisco]
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.xebisco.yieldfx;
+
+import javafx.geometry.Bounds;
+import javafx.scene.text.Font;
+import javafx.scene.text.Text;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Least recently used cache of parsed TEXT renderables and their measured bounds, keyed by the renderable specific ({@code text + "\1" + fontKey}).
+ * Lookups by text and font key go through a reusable probe that hashes and compares like the joined key, so a hit allocates nothing.
+ */
+public class TextCache {
+
+    private final YieldFX yieldFX;
+    private final Text measure = new Text();
+    private final Probe probe = new Probe();
+    private int maxEntries;
+    private long hits, misses, evictions;
+
+    private final LinkedHashMap<String, Metrics> entries = new LinkedHashMap<>(256, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, Metrics> eldest) {
+            if (size() > maxEntries) {
+                evictions++;
+                return true;
+            }
+            return false;
+        }
+    };
+
+    public TextCache(YieldFX yieldFX, int maxEntries) {
+        this.yieldFX = yieldFX;
+        this.maxEntries = maxEntries;
+    }
+
+    public static String key(String text, String fontKey) {
+        return text + "\1" + fontKey;
+    }
+
+    public synchronized Metrics get(String specific) {
+        Metrics metrics = entries.get(specific);
+        if (metrics != null) {
+            hits++;
+            return metrics;
+        }
+        misses++;
+        int i = specific.indexOf('\1');
+        String text = i < 0 ? specific : specific.substring(0, i);
+        int j = specific.indexOf('\1', i + 1);
+        String fontKey = i < 0 ? null : specific.substring(i + 1, j < 0 ? specific.length() : j);
+        Font font = yieldFX.getFonts().get(fontKey);
+        measure.setText(text);
+        measure.setFont(font);
+        Bounds bounds = measure.getBoundsInLocal();
+        metrics = new Metrics(text, fontKey, font, (float) bounds.getWidth(), (float) bounds.getHeight());
+        entries.put(specific, metrics);
+        return metrics;
+    }
+
+    public Metrics get(String text, String fontKey) {
+        synchronized (this) {
+            Metrics metrics = entries.get(probe.set(text, fontKey));
+            probe.set(null, null);
+            if (metrics != null) {
+                hits++;
+                return metrics;
+            }
+        }
+        return get(key(text, fontKey));
+    }
+
+    public synchronized void invalidate(String fontKey) {
+        Iterator<Metrics> iterator = entries.values().iterator();
+        while (iterator.hasNext()) {
+            Metrics metrics = iterator.next();
+            if (fontKey == null ? metrics.fontKey == null : fontKey.equals(metrics.fontKey))
+                iterator.remove();
+        }
+    }
+
+    public synchronized void clear() {
+        entries.clear();
+    }
+
+    public synchronized void resetCounters() {
+        hits = 0;
+        misses = 0;
+        evictions = 0;
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    public YieldFX getYieldFX() {
+        return yieldFX;
+    }
+
+    public synchronized int getMaxEntries() {
+        return maxEntries;
+    }
+
+    public synchronized void setMaxEntries(int maxEntries) {
+        this.maxEntries = maxEntries;
+        Iterator<Metrics> iterator = entries.values().iterator();
+        while (entries.size() > maxEntries && iterator.hasNext()) {
+            iterator.next();
+            iterator.remove();
+            evictions++;
+        }
+    }
+
+    public synchronized long getHits() {
+        return hits;
+    }
+
+    public synchronized long getMisses() {
+        return misses;
+    }
+
+    public synchronized long getEvictions() {
+        return evictions;
+    }
+
+    /**
+     * Stands for {@code key(text, fontKey)} in map lookups without building it: same hash code, and equal to the joined string.
+     */
+    private static final class Probe {
+        private String text, fontKey;
+        private int hash;
+
+        private Probe set(String text, String fontKey) {
+            this.text = text;
+            this.fontKey = fontKey = String.valueOf(fontKey);
+            if (text != null) {
+                int h = text.hashCode() * 31 + '\1';
+                for (int i = 0; i < fontKey.length(); i++)
+                    h = h * 31 + fontKey.charAt(i);
+                hash = h;
+            }
+            return this;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof String))
+                return false;
+            String s = (String) o;
+            int n = text.length();
+            return s.length() == n + 1 + fontKey.length() && s.startsWith(text) && s.charAt(n) == '\1' && s.startsWith(fontKey, n + 1);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+    }
+
+    public static final class Metrics {
+        private final String text, fontKey;
+        private final Font font;
+        private final float width, height;
+
+        public Metrics(String text, String fontKey, Font font, float width, float height) {
+            this.text = text;
+            this.fontKey = fontKey;
+            this.font = font;
+            this.width = width;
+            this.height = height;
+        }
+
+        public String getText() {
+            return text;
+        }
+
+        public String getFontKey() {
+            return fontKey;
+        }
+
+        public Font getFont() {
+            return font;
+        }
+
+        public float getWidth() {
+            return width;
+        }
+
+        public float getHeight() {
+            return height;
+        }
+    }
+}
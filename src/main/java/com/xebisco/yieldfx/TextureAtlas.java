@@ -0,0 +1,228 @@
+/*
+ * Copyright [2022] [Xebisco]
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.xebisco.yieldfx;
+
+import javafx.scene.image.Image;
+import javafx.scene.image.PixelFormat;
+import javafx.scene.image.WritableImage;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Packs small textures into shared pages with a skyline bottom-left packer, so sprites drawn from the same page don't switch GPU textures.
+ * {@link #free Freed} regions are cleared and reused for later textures that fit in them, and a page whose regions are all freed starts over empty.
+ */
+public class TextureAtlas {
+
+    private final int pageSize, maxTextureSize, padding;
+    private final List<Page> pages = new ArrayList<>();
+
+    public TextureAtlas(int pageSize, int maxTextureSize, int padding) {
+        if (maxTextureSize + padding * 2 > pageSize)
+            throw new YieldFXException("YieldFX: Atlas textures of " + maxTextureSize + "px do not fit in " + pageSize + "px pages.");
+        this.pageSize = pageSize;
+        this.maxTextureSize = maxTextureSize;
+        this.padding = padding;
+    }
+
+    public TextureAtlas() {
+        this(2048, 256, 1);
+    }
+
+    public boolean accepts(Image image) {
+        return image.getWidth() <= maxTextureSize && image.getHeight() <= maxTextureSize;
+    }
+
+    public synchronized TextureView add(Image image) {
+        if (!accepts(image))
+            return null;
+        int w = (int) image.getWidth(), h = (int) image.getHeight();
+        for (Page page : pages) {
+            TextureView view = page.add(image, w, h);
+            if (view != null)
+                return view;
+        }
+        Page page = new Page();
+        pages.add(page);
+        return page.add(image, w, h);
+    }
+
+    /**
+     * Gives back the region of a view returned by {@link #add}. Returns false if the view isn't one of this atlas' regions.
+     */
+    public synchronized boolean free(TextureView view) {
+        if (!view.isOwner())
+            return false;
+        for (Page page : pages)
+            if (page.image == view.getSource())
+                return page.free(view.getX() - padding, view.getY() - padding, view.getWidth() + padding * 2, view.getHeight() + padding * 2);
+        return false;
+    }
+
+    public synchronized void clear() {
+        pages.clear();
+    }
+
+    public synchronized int getPageCount() {
+        return pages.size();
+    }
+
+    public synchronized List<Image> getPageImages() {
+        List<Image> images = new ArrayList<>(pages.size());
+        for (Page page : pages)
+            images.add(page.image);
+        return images;
+    }
+
+    public int getPageSize() {
+        return pageSize;
+    }
+
+    public int getMaxTextureSize() {
+        return maxTextureSize;
+    }
+
+    public int getPadding() {
+        return padding;
+    }
+
+    private final class Page {
+        private final WritableImage image = new WritableImage(pageSize, pageSize);
+        private int[] skylineX = new int[16], skylineY = new int[16], skylineW = new int[16];
+        private int segments = 1, used;
+        private final List<int[]> free = new ArrayList<>();
+
+        private Page() {
+            skylineW[0] = pageSize;
+        }
+
+        private TextureView add(Image source, int w, int h) {
+            int pw = w + padding * 2, ph = h + padding * 2;
+            int[] region = reuse(pw, ph);
+            if (region != null)
+                return place(source, region[0], region[1], w, h);
+            int best = -1, bestY = Integer.MAX_VALUE, bestW = Integer.MAX_VALUE;
+            for (int i = 0; i < segments; i++) {
+                int y = fit(i, pw);
+                if (y < 0 || y + ph > pageSize)
+                    continue;
+                if (y + ph < bestY || (y + ph == bestY && skylineW[i] < bestW)) {
+                    best = i;
+                    bestY = y + ph;
+                    bestW = skylineW[i];
+                }
+            }
+            if (best < 0)
+                return null;
+            int x = skylineX[best], y = bestY - ph;
+            insert(best, x, bestY, pw);
+            return place(source, x, y, w, h);
+        }
+
+        private TextureView place(Image source, int x, int y, int w, int h) {
+            used++;
+            image.getPixelWriter().setPixels(x + padding, y + padding, w, h, source.getPixelReader(), 0, 0);
+            return new TextureView(image, x + padding, y + padding, w, h, false, false);
+        }
+
+        /**
+         * Takes the smallest free region the padded size fits in, giving the rest of it back as a right and a bottom region.
+         */
+        private int[] reuse(int pw, int ph) {
+            int best = -1;
+            for (int i = 0; i < free.size(); i++) {
+                int[] r = free.get(i);
+                if (r[2] >= pw && r[3] >= ph && (best < 0 || r[2] * r[3] < free.get(best)[2] * free.get(best)[3]))
+                    best = i;
+            }
+            if (best < 0)
+                return null;
+            int[] r = free.remove(best);
+            if (r[2] > pw)
+                free.add(new int[]{r[0] + pw, r[1], r[2] - pw, ph});
+            if (r[3] > ph)
+                free.add(new int[]{r[0], r[1] + ph, r[2], r[3] - ph});
+            return r;
+        }
+
+        private boolean free(int x, int y, int pw, int ph) {
+            image.getPixelWriter().setPixels(x, y, pw, ph, PixelFormat.getIntArgbInstance(), new int[pw * ph], 0, pw);
+            if (--used == 0) {
+                free.clear();
+                segments = 1;
+                skylineX[0] = 0;
+                skylineY[0] = 0;
+                skylineW[0] = pageSize;
+            } else {
+                free.add(new int[]{x, y, pw, ph});
+            }
+            return true;
+        }
+
+        private int fit(int index, int width) {
+            int x = skylineX[index];
+            if (x + width > pageSize)
+                return -1;
+            int left = width, y = 0;
+            for (int i = index; left > 0; i++) {
+                y = Math.max(y, skylineY[i]);
+                left -= skylineW[i];
+            }
+            return y;
+        }
+
+        private void insert(int index, int x, int y, int width) {
+            if (segments == skylineX.length) {
+                skylineX = Arrays.copyOf(skylineX, segments * 2);
+                skylineY = Arrays.copyOf(skylineY, segments * 2);
+                skylineW = Arrays.copyOf(skylineW, segments * 2);
+            }
+            System.arraycopy(skylineX, index, skylineX, index + 1, segments - index);
+            System.arraycopy(skylineY, index, skylineY, index + 1, segments - index);
+            System.arraycopy(skylineW, index, skylineW, index + 1, segments - index);
+            skylineX[index] = x;
+            skylineY[index] = y;
+            skylineW[index] = width;
+            segments++;
+            for (int i = index + 1; i < segments; i++) {
+                int shrink = skylineX[index] + skylineW[index] - skylineX[i];
+                if (shrink <= 0)
+                    break;
+                skylineX[i] += shrink;
+                skylineW[i] -= shrink;
+                if (skylineW[i] > 0)
+                    break;
+                remove(i--);
+            }
+            for (int i = 0; i < segments - 1; i++) {
+                if (skylineY[i] == skylineY[i + 1]) {
+                    skylineW[i] += skylineW[i + 1];
+                    remove(i-- + 1);
+                }
+            }
+        }
+
+        private void remove(int index) {
+            System.arraycopy(skylineX, index + 1, skylineX, index, segments - index - 1);
+            System.arraycopy(skylineY, index + 1, skylineY, index, segments - index - 1);
+            System.arraycopy(skylineW, index + 1, skylineW, index, segments - index - 1);
+            segments--;
+        }
+    }
+}
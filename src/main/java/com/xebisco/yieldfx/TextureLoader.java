@@ -0,0 +1,132 @@
+/*
+ * Copyright [2022] [Xebisco]
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.xebisco.yieldfx;
+
+import com.xebisco.yield.Texture;
+import javafx.application.Platform;
+import javafx.scene.image.Image;
+import javafx.scene.image.WritableImage;
+
+import java.util.Collection;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BiConsumer;
+
+/**
+ * Decodes textures on a pool of worker threads and attaches the decoded images to their textures on the FX thread, a batch per pulse.
+ */
+public class TextureLoader {
+
+    private final YieldFX yieldFX;
+    private final ExecutorService executor;
+    private final ConcurrentLinkedQueue<Decoded> decoded = new ConcurrentLinkedQueue<>();
+    private final AtomicBoolean drainScheduled = new AtomicBoolean();
+    private volatile int batchSize = 16;
+
+    public TextureLoader(YieldFX yieldFX, int threads) {
+        this.yieldFX = yieldFX;
+        AtomicInteger count = new AtomicInteger();
+        executor = Executors.newFixedThreadPool(threads, r -> {
+            Thread thread = new Thread(r, "YieldFX-TextureLoader-" + count.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    public CompletableFuture<Texture> load(Texture texture) {
+        CompletableFuture<Texture> future = new CompletableFuture<>();
+        executor.execute(() -> {
+            try {
+                Image image = new Image(texture.getInputStream());
+                if (image.isError())
+                    throw new YieldFXException("YieldFX: Could not decode texture '" + texture.getCachedPath() + "': " + image.getException());
+                decoded.add(new Decoded(texture, new WritableImage(image.getPixelReader(), (int) image.getWidth(), (int) image.getHeight()), future));
+                scheduleDrain();
+            } catch (Throwable e) {
+                future.completeExceptionally(e);
+            }
+        });
+        return future;
+    }
+
+    public CompletableFuture<Void> load(Collection<Texture> textures, BiConsumer<Integer, Integer> progress) {
+        CompletableFuture<?>[] futures = new CompletableFuture<?>[textures.size()];
+        AtomicInteger loaded = new AtomicInteger();
+        int i = 0;
+        for (Texture texture : textures) {
+            CompletableFuture<Texture> future = load(texture);
+            if (progress != null)
+                future.thenRun(() -> progress.accept(loaded.incrementAndGet(), futures.length));
+            futures[i++] = future;
+        }
+        return CompletableFuture.allOf(futures);
+    }
+
+    private void scheduleDrain() {
+        if (drainScheduled.compareAndSet(false, true))
+            Platform.runLater(this::drain);
+    }
+
+    private void drain() {
+        drainScheduled.set(false);
+        Decoded d;
+        int n = 0;
+        while (n++ < batchSize && (d = decoded.poll()) != null) {
+            try {
+                yieldFX.attachTexture(d.texture, d.image, true);
+                d.future.complete(d.texture);
+            } catch (Throwable e) {
+                d.future.completeExceptionally(e);
+            }
+        }
+        if (!decoded.isEmpty())
+            scheduleDrain();
+    }
+
+    public void shutdown() {
+        executor.shutdown();
+    }
+
+    public YieldFX getYieldFX() {
+        return yieldFX;
+    }
+
+    public ExecutorService getExecutor() {
+        return executor;
+    }
+
+    public int getBatchSize() {
+        return batchSize;
+    }
+
+    public void setBatchSize(int batchSize) {
+        this.batchSize = batchSize;
+    }
+
+    private static final class Decoded {
+        private final Texture texture;
+        private final WritableImage image;
+        private final CompletableFuture<Texture> future;
+
+        private Decoded(Texture texture, WritableImage image, CompletableFuture<Texture> future) {
+            this.texture = texture;
+            this.image = image;
+            this.future = future;
+        }
+    }
+}
@@ -0,0 +1,298 @@
+/*
+ * Copyright [2022] [Xebisco]
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.xebisco.yieldfx;
+
+import com.xebisco.yield.RelativeFile;
+import com.xebisco.yield.Texture;
+import com.xebisco.yield.Yld;
+import javafx.scene.image.Image;
+
+import java.io.InputStream;
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.WeakHashMap;
+
+/**
+ * Tracks the pixel memory held by every loaded {@link Texture}, its flipped variants included, and keeps it under an optional budget.
+ * When the budget is exceeded, the textures drawn least recently are evicted: their images, and their variants', are replaced by {@link EvictedTexture}
+ * placeholders, and reloaded from {@code getCachedPath()} on the thread that next draws or reads them, so an evicted texture is never drawn missing. Only textures holding the unmodified contents of their file are evicted:
+ * cut, scaled, duplicated or composited textures, textures written to through {@code setPixels} and similar calls, and textures packed in the atlas are
+ * kept. Views that share another texture's pixels, like cuts, count no bytes of their own. Textures are held weakly, so the ones nothing else refers
+ * to anymore are collected as before and stop counting.
+ */
+public class TextureRegistry {
+
+    private final YieldFX yieldFX;
+    private final Map<Texture, Entry> entries = new WeakHashMap<>(), variants = new WeakHashMap<>();
+    private final Map<Object, Entry> images = new WeakHashMap<>();
+    private final ReferenceQueue<Texture> collected = new ReferenceQueue<>();
+    private volatile long budget;
+    private long resident, evictions, reloads, frame;
+
+    public TextureRegistry(YieldFX yieldFX) {
+        this.yieldFX = yieldFX;
+    }
+
+    public synchronized void register(Texture texture, boolean packed, boolean file) {
+        expunge();
+        Entry entry = entries.get(texture);
+        if (entry == null) {
+            entry = new Entry(texture, collected);
+            entries.put(texture, entry);
+        } else {
+            forget(entry);
+        }
+        String path = texture.getCachedPath();
+        entry.packed = packed;
+        entry.evictable = file && !packed && path != null && !path.isEmpty() && Yld.class.getResource(path.startsWith("/") ? path : "/" + path) != null;
+        entry.evicted = false;
+        entry.lastDrawn = frame;
+        remember(entry);
+    }
+
+    /**
+     * Recounts the bytes of a texture, or of the texture owning the given variant, after one of its images was replaced.
+     */
+    public synchronized void update(Texture texture) {
+        Entry entry = entry(texture);
+        if (entry != null && !entry.evicted) {
+            forget(entry);
+            remember(entry);
+        }
+    }
+
+    /**
+     * Marks a texture, or the texture owning the given variant, as holding pixels that can't be reloaded from its file, so it is never evicted.
+     */
+    public synchronized void modified(Texture texture) {
+        Entry entry = entry(texture);
+        if (entry != null)
+            entry.evictable = false;
+    }
+
+    public synchronized void touch(Object image) {
+        Entry entry = images.get(image);
+        if (entry != null)
+            entry.lastDrawn = frame;
+    }
+
+    public synchronized void endFrame() {
+        frame++;
+        expunge();
+        long budget = this.budget;
+        if (budget <= 0 || resident <= budget)
+            return;
+        List<Entry> candidates = new ArrayList<>();
+        for (Entry entry : entries.values())
+            if (entry.evictable && !entry.evicted && entry.lastDrawn < frame - 1)
+                candidates.add(entry);
+        candidates.sort((a, b) -> Long.compare(a.lastDrawn, b.lastDrawn));
+        for (int i = 0; i < candidates.size() && resident > budget; i++)
+            evict(candidates.get(i));
+    }
+
+    private void evict(Entry entry) {
+        Texture texture = entry.get();
+        if (texture == null)
+            return;
+        forget(entry);
+        texture.setSpecificImage(new EvictedTexture(texture));
+        for (Texture variant : variants(texture))
+            if (variant != null)
+                variant.setSpecificImage(new EvictedTexture(variant));
+        entry.evicted = true;
+        evictions++;
+    }
+
+    /**
+     * Starts reloading an evicted texture in the background, ahead of its next draw. A draw that comes first reloads it synchronously instead.
+     */
+    public void reload(Texture texture) {
+        Entry entry;
+        Texture main;
+        synchronized (this) {
+            entry = entry(texture);
+            main = entry == null ? null : entry.get();
+            if (main == null || !entry.evicted || entry.reloading)
+                return;
+            entry.reloading = true;
+            reloads++;
+        }
+        main.setInputStream(open(main));
+        yieldFX.getTextureLoader().load(main).whenComplete((t, e) -> {
+            synchronized (this) {
+                entry.reloading = false;
+            }
+        });
+    }
+
+    /**
+     * Makes sure the pixels of a texture, or of the texture owning the given variant, are loaded, reloading them on the calling thread if needed.
+     * The texture counts as drawn in the current frame, so it isn't picked for eviction right after.
+     */
+    public void resident(Texture texture) {
+        Texture main;
+        synchronized (this) {
+            Entry entry = entry(texture);
+            if (entry == null)
+                return;
+            entry.lastDrawn = frame;
+            main = entry.get();
+            if (main == null || !entry.evicted)
+                return;
+            reloads++;
+        }
+        Image image = new Image(open(main));
+        if (image.isError())
+            throw new YieldFXException("YieldFX: Could not reload texture '" + main.getCachedPath() + "': " + image.getException());
+        yieldFX.loadFile(main, image);
+    }
+
+    /**
+     * Reloads the texture an {@link EvictedTexture} stands for on the calling thread and returns the image that now replaces it.
+     */
+    public Object resolve(EvictedTexture evicted) {
+        Object specific;
+        do {
+            resident(evicted.getTexture());
+            specific = evicted.getTexture().getSpecificImage();
+        } while (specific instanceof EvictedTexture);
+        return specific;
+    }
+
+    public synchronized void unload(Texture texture) {
+        Entry entry = entry(texture);
+        Texture main = entry == null || entry.get() == null ? texture : entry.get();
+        if (entry != null) {
+            forget(entry);
+            entries.remove(main);
+        }
+        main.setSpecificImage(null);
+        for (Texture variant : variants(main)) {
+            if (variant != null) {
+                variant.setSpecificImage(null);
+                variants.remove(variant);
+            }
+        }
+    }
+
+    public synchronized void unloadAll() {
+        for (Texture texture : new ArrayList<>(entries.keySet()))
+            unload(texture);
+        images.clear();
+        variants.clear();
+        resident = 0;
+    }
+
+    private static InputStream open(Texture texture) {
+        InputStream stream = new RelativeFile(texture.getCachedPath()).getInputStream();
+        if (stream == null)
+            throw new YieldFXException("YieldFX: Could not reload texture '" + texture.getCachedPath() + "'.");
+        return stream;
+    }
+
+    private Entry entry(Texture texture) {
+        Entry entry = entries.get(texture);
+        return entry != null ? entry : variants.get(texture);
+    }
+
+    private static Texture[] variants(Texture texture) {
+        return new Texture[]{texture.getInvertedX(), texture.getInvertedY(), texture.getInvertedXY()};
+    }
+
+    private void expunge() {
+        Reference<? extends Texture> reference;
+        while ((reference = collected.poll()) != null) {
+            Entry entry = (Entry) reference;
+            resident -= entry.bytes;
+            entry.bytes = 0;
+        }
+    }
+
+    private void remember(Entry entry) {
+        Texture texture = entry.get();
+        entry.bytes = bytes(texture.getSpecificImage(), entry.packed);
+        images.put(texture.getSpecificImage(), entry);
+        for (Texture variant : variants(texture)) {
+            if (variant != null) {
+                variants.put(variant, entry);
+                images.put(variant.getSpecificImage(), entry);
+                entry.bytes += bytes(variant.getSpecificImage(), false);
+            }
+        }
+        resident += entry.bytes;
+    }
+
+    private void forget(Entry entry) {
+        Texture texture = entry.get();
+        if (texture != null) {
+            images.remove(texture.getSpecificImage());
+            for (Texture variant : variants(texture))
+                if (variant != null)
+                    images.remove(variant.getSpecificImage());
+        }
+        resident -= entry.bytes;
+        entry.bytes = 0;
+    }
+
+    private static long bytes(Object image, boolean packed) {
+        if (image instanceof Image)
+            return (long) (((Image) image).getWidth() * ((Image) image).getHeight()) * 4;
+        if (packed && image instanceof TextureView)
+            return (long) ((TextureView) image).getWidth() * ((TextureView) image).getHeight() * 4;
+        return 0;
+    }
+
+    public long getBudget() {
+        return budget;
+    }
+
+    public void setBudget(long budget) {
+        this.budget = budget;
+    }
+
+    public synchronized long getResident() {
+        expunge();
+        return resident;
+    }
+
+    public synchronized long getEvictions() {
+        return evictions;
+    }
+
+    public synchronized long getReloads() {
+        return reloads;
+    }
+
+    public synchronized int size() {
+        expunge();
+        return entries.size();
+    }
+
+    private static final class Entry extends WeakReference<Texture> {
+        private long bytes, lastDrawn;
+        private boolean packed, evictable, evicted, reloading;
+
+        private Entry(Texture texture, ReferenceQueue<Texture> queue) {
+            super(texture, queue);
+        }
+    }
+}
@@ -0,0 +1,157 @@
+/*
+ * Copyright [2022] [Xebisco]
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.xebisco.yieldfx;
+
+import javafx.scene.canvas.GraphicsContext;
+import javafx.scene.image.Image;
+import javafx.scene.image.PixelFormat;
+import javafx.scene.image.WritableImage;
+
+/**
+ * Texture specific image that refers to a rectangle of another image, optionally mirrored, without copying its pixels. Code that needs an
+ * {@link Image} from a texture should use {@link YieldFX#getImage}, not cast its specific image.
+ * A shared view, like a cut of another texture, doesn't own its rectangle, so writing to its texture copies the pixels first.
+ */
+public class TextureView {
+
+    private final Image source;
+    private final int x, y, width, height;
+    private final boolean flipX, flipY, shared;
+
+    public TextureView(Image source, int x, int y, int width, int height, boolean flipX, boolean flipY, boolean shared) {
+        this.source = source;
+        this.x = x;
+        this.y = y;
+        this.width = width;
+        this.height = height;
+        this.flipX = flipX;
+        this.flipY = flipY;
+        this.shared = shared;
+    }
+
+    public TextureView(Image source, int x, int y, int width, int height, boolean flipX, boolean flipY) {
+        this(source, x, y, width, height, flipX, flipY, false);
+    }
+
+    public TextureView(Image source, boolean flipX, boolean flipY) {
+        this(source, 0, 0, (int) source.getWidth(), (int) source.getHeight(), flipX, flipY);
+    }
+
+    public static Image toImage(Object specific) {
+        if (specific instanceof TextureView)
+            return ((TextureView) specific).toImage();
+        return (Image) specific;
+    }
+
+    /**
+     * Returns the image whose pixels a texture specific image shows.
+     */
+    public static Image source(Object specific) {
+        return specific instanceof TextureView ? ((TextureView) specific).getSource() : (Image) specific;
+    }
+
+    public void draw(GraphicsContext g, double dx, double dy, double dw, double dh) {
+        if (flipX) {
+            dx += dw;
+            dw = -dw;
+        }
+        if (flipY) {
+            dy += dh;
+            dh = -dh;
+        }
+        g.drawImage(source, x, y, width, height, dx, dy, dw, dh);
+    }
+
+    public TextureView flipped(boolean flipX, boolean flipY) {
+        return new TextureView(source, x, y, width, height, this.flipX ^ flipX, this.flipY ^ flipY, shared);
+    }
+
+    /**
+     * Returns a shared view of the given rectangle, in the coordinates this view is drawn in.
+     */
+    public TextureView region(int rx, int ry, int rw, int rh) {
+        int sx = flipX ? x + width - rx - rw : x + rx;
+        int sy = flipY ? y + height - ry - rh : y + ry;
+        return new TextureView(source, sx, sy, rw, rh, flipX, flipY, true);
+    }
+
+    public void readArgb(int[] pixels, int offset, int stride) {
+        source.getPixelReader().getPixels(x, y, width, height, PixelFormat.getIntArgbInstance(), pixels, offset, stride);
+        if (flipX)
+            for (int row = offset, end = offset + height * stride; row < end; row += stride)
+                for (int l = row, r = row + width - 1; l < r; l++, r--) {
+                    int t = pixels[l];
+                    pixels[l] = pixels[r];
+                    pixels[r] = t;
+                }
+        if (flipY) {
+            int[] t = new int[width];
+            for (int top = offset, bottom = offset + (height - 1) * stride; top < bottom; top += stride, bottom -= stride) {
+                System.arraycopy(pixels, top, t, 0, width);
+                System.arraycopy(pixels, bottom, pixels, top, width);
+                System.arraycopy(t, 0, pixels, bottom, width);
+            }
+        }
+    }
+
+    public WritableImage toImage() {
+        int[] pixels = new int[width * height];
+        readArgb(pixels, 0, width);
+        WritableImage image = new WritableImage(width, height);
+        image.getPixelWriter().setPixels(0, 0, width, height, PixelFormat.getIntArgbInstance(), pixels, 0, width);
+        return image;
+    }
+
+    public Image getSource() {
+        return source;
+    }
+
+    public int getX() {
+        return x;
+    }
+
+    public int getY() {
+        return y;
+    }
+
+    public int getWidth() {
+        return width;
+    }
+
+    public int getHeight() {
+        return height;
+    }
+
+    public boolean isFlipX() {
+        return flipX;
+    }
+
+    public boolean isFlipY() {
+        return flipY;
+    }
+
+    public boolean isShared() {
+        return shared;
+    }
+
+    /**
+     * Whether this view shows its rectangle unmirrored and owns it, so its texture can be written through it in place.
+     */
+    public boolean isOwner() {
+        return !flipX && !flipY && !shared;
+    }
+}
@@ -0,0 +1,285 @@
+/*
+ * Copyright [2022] [Xebisco]
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.xebisco.yieldfx;
+
+import com.xebisco.yield.Texture;
+import com.xebisco.yield.render.Renderable;
+import com.xebisco.yield.render.RenderableType;
+import javafx.scene.image.WritableImage;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Grid of tile indices drawn from a tileset texture. The map is split into square chunks that are baked into {@link WritableImage}s on the common
+ * fork-join pool from a copy of their tiles taken on the calling thread; each chunk is drawn as one IMAGE command, and changing a tile only rebakes its
+ * chunk. A chunk keeps showing its previous image until the new one is ready. Negative indices are empty tiles. Writes to the tileset through
+ * {@link YieldFX} rebake every chunk on the next frame.
+ */
+public class TileMap {
+
+    private final YieldFX yieldFX;
+    private final Texture tileset;
+    private final int tileWidth, tileHeight, columns, rows, chunkSize;
+    private final int[] tiles;
+    private final Chunk[] chunks;
+    private final int chunkColumns;
+    private volatile Tileset tilesetPixels;
+    private volatile int tileCount;
+    private volatile boolean tilesetStale;
+    private volatile int x, y;
+    private volatile boolean visible = true;
+
+    public TileMap(YieldFX yieldFX, Texture tileset, int tileWidth, int tileHeight, int columns, int rows, int chunkSize) {
+        if (tileWidth <= 0 || tileHeight <= 0 || columns <= 0 || rows <= 0 || chunkSize <= 0)
+            throw new YieldFXException("YieldFX: Invalid tile map size " + columns + "x" + rows + " of " + tileWidth + "x" + tileHeight + " tiles in chunks of " + chunkSize + ".");
+        this.yieldFX = yieldFX;
+        this.tileset = tileset;
+        this.tileWidth = tileWidth;
+        this.tileHeight = tileHeight;
+        this.columns = columns;
+        this.rows = rows;
+        this.chunkSize = chunkSize;
+        tiles = new int[columns * rows];
+        Arrays.fill(tiles, -1);
+        chunkColumns = (columns + chunkSize - 1) / chunkSize;
+        int chunkRows = (rows + chunkSize - 1) / chunkSize;
+        chunks = new Chunk[chunkColumns * chunkRows];
+        for (int cy = 0, i = 0; cy < chunkRows; cy++)
+            for (int cx = 0; cx < chunkColumns; cx++, i++)
+                chunks[i] = new Chunk(cx * chunkSize, cy * chunkSize, Math.min(chunkSize, columns - cx * chunkSize), Math.min(chunkSize, rows - cy * chunkSize));
+        refreshTileset();
+    }
+
+    public TileMap(YieldFX yieldFX, Texture tileset, int tileWidth, int tileHeight, int columns, int rows) {
+        this(yieldFX, tileset, tileWidth, tileHeight, columns, rows, 16);
+    }
+
+    /**
+     * Reads the tileset pixels again and rebakes every chunk. Writes made through {@link YieldFX} do this on their own; call it after changing the
+     * tileset texture some other way.
+     */
+    public void refreshTileset() {
+        tilesetStale = false;
+        Tileset pixels = new Tileset(yieldFX.getTextureArgb(tileset), tileset.getWidth(), tileset.getWidth() / tileWidth);
+        tileCount = pixels.columns * (tileset.getHeight() / tileHeight);
+        tilesetPixels = pixels;
+        for (Chunk chunk : chunks)
+            chunk.invalidate();
+    }
+
+    /**
+     * Marks the tileset for a refresh on the next frame if {@code texture} is it. Called by {@link YieldFX} whenever a texture is written to.
+     */
+    void textureChanged(Texture texture) {
+        if (texture == tileset)
+            tilesetStale = true;
+    }
+
+    public int getTile(int column, int row) {
+        return tiles[row * columns + column];
+    }
+
+    public void setTile(int column, int row, int tile) {
+        if (tile >= tileCount)
+            throw new YieldFXException("YieldFX: Tile " + tile + " is out of the tileset (" + tileCount + " tiles).");
+        int i = row * columns + column;
+        if (tiles[i] == tile)
+            return;
+        tiles[i] = tile;
+        chunks[(row / chunkSize) * chunkColumns + column / chunkSize].invalidate();
+    }
+
+    public void setTiles(int[] tiles) {
+        if (tiles.length != this.tiles.length)
+            throw new YieldFXException("YieldFX: Expected " + this.tiles.length + " tiles, got " + tiles.length + ".");
+        for (int tile : tiles)
+            if (tile >= tileCount)
+                throw new YieldFXException("YieldFX: Tile " + tile + " is out of the tileset (" + tileCount + " tiles).");
+        System.arraycopy(tiles, 0, this.tiles, 0, tiles.length);
+        for (Chunk chunk : chunks)
+            chunk.invalidate();
+    }
+
+    /**
+     * Starts baking every chunk that is out of date and completes once all of them are ready.
+     */
+    public CompletableFuture<Void> bake() {
+        CompletableFuture<?>[] futures = new CompletableFuture<?>[chunks.length];
+        for (int i = 0; i < chunks.length; i++)
+            futures[i] = chunks[i].schedule();
+        return CompletableFuture.allOf(futures);
+    }
+
+    void collect(List<Renderable> out) {
+        if (tilesetStale)
+            refreshTileset();
+        if (!visible)
+            return;
+        int x = this.x, y = this.y;
+        for (Chunk chunk : chunks) {
+            chunk.start();
+            WritableImage image = chunk.image;
+            if (image == null)
+                continue;
+            Renderable renderable = chunk.renderable;
+            renderable.setSpecific(image);
+            renderable.setX(x + chunk.column * tileWidth + chunk.width * tileWidth / 2);
+            renderable.setY(y + chunk.row * tileHeight + chunk.height * tileHeight / 2);
+            out.add(renderable);
+        }
+    }
+
+    private int[] copyTiles(Chunk chunk) {
+        int[] copy = new int[chunk.width * chunk.height];
+        for (int ty = 0; ty < chunk.height; ty++)
+            System.arraycopy(tiles, (chunk.row + ty) * columns + chunk.column, copy, ty * chunk.width, chunk.width);
+        return copy;
+    }
+
+    private void bake(Chunk chunk, int[] chunkTiles, Tileset source) {
+        int width = chunk.width * tileWidth, height = chunk.height * tileHeight;
+        int[] argb = new int[width * height];
+        for (int ty = 0; ty < chunk.height; ty++) {
+            for (int tx = 0; tx < chunk.width; tx++) {
+                int tile = chunkTiles[ty * chunk.width + tx];
+                if (tile < 0)
+                    continue;
+                int sx = (tile % source.columns) * tileWidth, sy = (tile / source.columns) * tileHeight;
+                for (int py = 0; py < tileHeight; py++)
+                    System.arraycopy(source.argb, (sy + py) * source.width + sx, argb, (ty * tileHeight + py) * width + tx * tileWidth, tileWidth);
+            }
+        }
+        chunk.image = Resampler.toImage(argb, width, height);
+    }
+
+    public Texture getTileset() {
+        return tileset;
+    }
+
+    public int getTileWidth() {
+        return tileWidth;
+    }
+
+    public int getTileHeight() {
+        return tileHeight;
+    }
+
+    public int getColumns() {
+        return columns;
+    }
+
+    public int getRows() {
+        return rows;
+    }
+
+    public int getChunkSize() {
+        return chunkSize;
+    }
+
+    public int getX() {
+        return x;
+    }
+
+    public void setX(int x) {
+        this.x = x;
+    }
+
+    public int getY() {
+        return y;
+    }
+
+    public void setY(int y) {
+        this.y = y;
+    }
+
+    public boolean isVisible() {
+        return visible;
+    }
+
+    public void setVisible(boolean visible) {
+        this.visible = visible;
+    }
+
+    private static final class Tileset {
+        private final int[] argb;
+        private final int width, columns;
+
+        private Tileset(int[] argb, int width, int columns) {
+            this.argb = argb;
+            this.width = width;
+            this.columns = columns;
+        }
+    }
+
+    private final class Chunk {
+        private final int column, row, width, height;
+        private final Renderable renderable = new Renderable();
+        private final AtomicInteger version = new AtomicInteger();
+        private final AtomicBoolean baking = new AtomicBoolean();
+        private volatile int baked = -1;
+        private volatile WritableImage image;
+        private volatile CompletableFuture<Void> pending = CompletableFuture.completedFuture(null);
+
+        private Chunk(int column, int row, int width, int height) {
+            this.column = column;
+            this.row = row;
+            this.width = width;
+            this.height = height;
+            renderable.setType(RenderableType.IMAGE);
+            renderable.setWidth(width * tileWidth);
+            renderable.setHeight(height * tileHeight);
+        }
+
+        private void invalidate() {
+            version.incrementAndGet();
+        }
+
+        private boolean start() {
+            int v = version.get();
+            if (baked == v || !baking.compareAndSet(false, true))
+                return false;
+            int[] chunkTiles = copyTiles(this);
+            Tileset source = tilesetPixels;
+            pending = CompletableFuture.runAsync(() -> bake(this, chunkTiles, source), ForkJoinPool.commonPool()).whenComplete((r, e) -> {
+                baked = v;
+                baking.set(false);
+            });
+            return true;
+        }
+
+        /**
+         * Returns a future completing once the chunk is baked up to its current version. A bake started by another thread may not have published its
+         * future yet, so this spins until it has instead of chaining on the previous, completed one.
+         */
+        private CompletableFuture<Void> schedule() {
+            while (true) {
+                boolean started = start();
+                CompletableFuture<Void> current = pending;
+                if (!started && !baking.get())
+                    return CompletableFuture.completedFuture(null);
+                if (!current.isDone())
+                    return current.thenCompose(r -> schedule());
+                Thread.onSpinWait();
+            }
+        }
+    }
+}
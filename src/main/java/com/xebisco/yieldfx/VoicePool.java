@@ -0,0 +1,182 @@
+/*
+ * Copyright [2022] [Xebisco]
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.xebisco.yieldfx;
+
+import javafx.scene.media.AudioClip;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Plays short sound effects through preloaded {@link AudioClip}s, one per source shared by every effect playing it; {@code AudioClip} mixes the
+ * overlapping plays itself. Each source plays at most {@code maxVoicesPerClip} times at once and the whole pool at most {@code maxVoices}; when a
+ * limit is hit, the source that started playing the longest ago is stopped.
+ * <p>
+ * {@code AudioClip} can only stop all plays of a source together, and fixes the volume of a play when it starts. Stopping one effect therefore
+ * stops the other plays of its source, an effect can't be paused, only stopped and played again from the start, and a volume change applies from
+ * the effect's next play.
+ */
+public class VoicePool {
+
+    private final Map<String, Clip> clips = new HashMap<>();
+    private int maxVoices, maxVoicesPerClip;
+
+    public VoicePool(int maxVoices, int maxVoicesPerClip) {
+        this.maxVoices = maxVoices;
+        this.maxVoicesPerClip = maxVoicesPerClip;
+    }
+
+    public VoicePool() {
+        this(32, 4);
+    }
+
+    public synchronized void preload(String url) {
+        clips.computeIfAbsent(url, Clip::new);
+    }
+
+    public synchronized void play(Effect effect) {
+        Clip clip = clips.computeIfAbsent(effect.url, Clip::new), oldest = null;
+        int playing = 0;
+        for (Clip c : clips.values()) {
+            c.expire();
+            playing += c.voices;
+            if (c.voices > 0 && c != clip && (oldest == null || c.firstStarted < oldest.firstStarted))
+                oldest = c;
+        }
+        if (clip.voices >= maxVoicesPerClip)
+            clip.stop();
+        else if (playing >= maxVoices && oldest != null)
+            oldest.stop();
+        long now = System.nanoTime();
+        if (clip.voices++ == 0)
+            clip.firstStarted = now;
+        clip.audio.setCycleCount(effect.cycleCount);
+        clip.audio.play(effect.volume);
+        effect.clip = clip;
+        effect.generation = clip.generation;
+        effect.started = now;
+    }
+
+    public synchronized void stop(Effect effect) {
+        if (isPlaying(effect))
+            effect.clip.stop();
+        effect.clip = null;
+    }
+
+    public synchronized boolean isPlaying(Effect effect) {
+        Clip clip = effect.clip;
+        if (clip == null)
+            return false;
+        clip.expire();
+        return effect.generation == clip.generation && clip.voices > 0;
+    }
+
+    public synchronized void stopAll() {
+        for (Clip clip : clips.values())
+            clip.stop();
+    }
+
+    public synchronized void clear() {
+        stopAll();
+        clips.clear();
+    }
+
+    public synchronized int getMaxVoices() {
+        return maxVoices;
+    }
+
+    public synchronized void setMaxVoices(int maxVoices) {
+        this.maxVoices = maxVoices;
+    }
+
+    public synchronized int getMaxVoicesPerClip() {
+        return maxVoicesPerClip;
+    }
+
+    public synchronized void setMaxVoicesPerClip(int maxVoicesPerClip) {
+        this.maxVoicesPerClip = maxVoicesPerClip;
+    }
+
+    /**
+     * Playback settings of one {@code AudioPlayer} that uses the effect path.
+     */
+    public static class Effect {
+        private final String url;
+        private double volume = 1;
+        private int cycleCount = 1;
+        private long started, generation;
+        private Clip clip;
+
+        public Effect(String url) {
+            this.url = url;
+        }
+
+        public String getUrl() {
+            return url;
+        }
+
+        public double getVolume() {
+            return volume;
+        }
+
+        /**
+         * Sets the volume of the effect's next play; a play already started keeps its volume.
+         */
+        public void setVolume(double volume) {
+            this.volume = volume;
+        }
+
+        public int getCycleCount() {
+            return cycleCount;
+        }
+
+        public void setCycleCount(int cycleCount) {
+            this.cycleCount = cycleCount;
+        }
+
+        public long getStarted() {
+            return started;
+        }
+    }
+
+    /**
+     * The shared clip of one source and how many of its plays may still be running. The count drops to zero, and the plays started so far stop
+     * counting as playing, once the clip is stopped or has gone quiet.
+     */
+    private static final class Clip {
+        private final AudioClip audio;
+        private int voices;
+        private long firstStarted, generation;
+
+        private Clip(String url) {
+            audio = new AudioClip(url);
+        }
+
+        private void expire() {
+            if (voices > 0 && !audio.isPlaying()) {
+                voices = 0;
+                generation++;
+            }
+        }
+
+        private void stop() {
+            audio.stop();
+            voices = 0;
+            generation++;
+        }
+    }
+}
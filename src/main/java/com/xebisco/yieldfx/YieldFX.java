@@ -20,54 +20,87 @@ import com.xebisco.yield.*;
 import com.xebisco.yield.config.WindowConfiguration;
 import com.xebisco.yield.render.RenderMaster;
 import com.xebisco.yield.render.Renderable;
-import com.xebisco.yield.render.RenderableType;
 import javafx.animation.AnimationTimer;
 import javafx.application.Application;
 import javafx.application.Platform;
 import javafx.scene.Group;
-import javafx.scene.Scene;
 import javafx.scene.SnapshotParameters;
+import javafx.scene.Scene;
 import javafx.scene.canvas.Canvas;
 import javafx.scene.canvas.GraphicsContext;
 import javafx.scene.image.Image;
-import javafx.scene.image.PixelReader;
-import javafx.scene.image.PixelWriter;
+import javafx.scene.image.PixelFormat;
 import javafx.scene.image.WritableImage;
 import javafx.scene.media.Media;
 import javafx.scene.media.MediaPlayer;
 import javafx.scene.paint.Color;
 import javafx.scene.text.Font;
-import javafx.scene.text.FontPosture;
-import javafx.scene.text.FontWeight;
-import javafx.scene.text.Text;
-import javafx.scene.transform.Affine;
-import javafx.scene.transform.Rotate;
 import javafx.stage.Stage;
 import javafx.stage.StageStyle;
 import javafx.util.Duration;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URL;
+import java.net.URLConnection;
+import java.nio.IntBuffer;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executor;
+import java.util.function.BiConsumer;
 
 public class YieldFX extends Application implements RenderMaster {
 
     private Set<Renderable> renderables;
-    private Set<Integer> pressing = new HashSet<>();
+    private final InputState input = new InputState();
+    private Set<Integer> pressing = input.getPressing();
     private Stage stage;
     private final Canvas canvas = new Canvas(1280, 720);
+    private final RenderPass renderPass = new RenderPass(this);
+    private final FrameHandoff frames = new FrameHandoff();
+    private final FrameScheduler scheduler = new FrameScheduler();
     private Map<String, Font> fonts = new HashMap<>();
+    private final TextCache textCache = new TextCache(this, 4096);
+    private final FontCache fontCache = new FontCache();
+    private final TextureRegistry textures = new TextureRegistry(this);
+    private final StaticLayer staticLayer = new StaticLayer(canvas, textures);
+    private final RenderMetrics metrics = new RenderMetrics(textCache, 1024);
+    private final RenderScaleGovernor governor = new RenderScaleGovernor();
+    private volatile double renderScale = 1;
+    private volatile int pixelScale;
+    private final Canvas upscale = new Canvas();
+    private final SnapshotParameters snapshot = new SnapshotParameters();
+    private WritableImage lowRes, staticImage;
+    private long staticRedraws = -1;
+    private long lastPulse;
     private Group root;
-    private int mouseX, mouseY;
     private YldTask threadTask;
     private Scene scene;
     private float deltaTime;
     private long last;
 
     private final Map<Integer, MediaPlayer> players = new HashMap<>();
+    private final Map<Integer, VoicePool.Effect> effects = new HashMap<>();
+    private final Map<String, Media> medias = new HashMap<>();
+    private final VoicePool voicePool = new VoicePool();
+    private long effectMaxBytes = 512 * 1024;
     private final Map<Integer, Integer> playersLoop = new HashMap<>();
     private static YieldFX yieldFX;
 
     private static YldTask after;
 
+    private OffscreenTarget offscreen;
+    private TextureLoader textureLoader;
+    private TextureAtlas atlas;
+    private Resampler.Filter scaleFilter = Resampler.Filter.NEAREST;
+    private final Map<Texture, CollisionMask[]> masks = new ConcurrentHashMap<>();
+    private final Map<Image, List<int[]>> cutRegions = Collections.synchronizedMap(new WeakHashMap<>());
+    private volatile int maskThreshold = 1;
+    private final List<TileMap> tileMaps = new CopyOnWriteArrayList<>();
+    private final List<Renderable> tileChunks = new ArrayList<>();
+
     @Override
     public void start(Stage stage) {
         this.stage = stage;
@@ -89,6 +122,18 @@ public class YieldFX extends Application implements RenderMaster {
         return new com.xebisco.yield.Color((float) color.getRed(), (float) color.getGreen(), (float) color.getBlue(), (float) color.getOpacity());
     }
 
+    public static com.xebisco.yield.Color toYieldColor(int argb) {
+        return new com.xebisco.yield.Color(((argb >> 16) & 0xFF) / 255f, ((argb >> 8) & 0xFF) / 255f, (argb & 0xFF) / 255f, (argb >>> 24) / 255f);
+    }
+
+    public static int toArgb(com.xebisco.yield.Color color) {
+        return channel(color.getA()) << 24 | channel(color.getR()) << 16 | channel(color.getG()) << 8 | channel(color.getB());
+    }
+
+    private static int channel(float v) {
+        return Math.max(0, Math.min(255, Math.round(v * 255f)));
+    }
+
     @Override
     public void start(Set<Renderable> renderables) {
         this.renderables = renderables;
@@ -113,149 +158,217 @@ public class YieldFX extends Application implements RenderMaster {
     }
 
     public void rotate(GraphicsContext gc, float angle, float px, float py) {
-        Rotate r = new Rotate(angle, px, py);
-        gc.setTransform(r.getMxx(), r.getMyx(), r.getMxy(), r.getMyy(), r.getTx(), r.getTy());
+        RenderPass.setRotation(gc, angle, px, py);
     }
 
     @Override
     public SampleWindow initWindow(WindowConfiguration windowConfiguration) {
         GameConfiguration configuration = (GameConfiguration) windowConfiguration;
         Platform.runLater(() -> {
-            Yld.getDebugLogger().log("YieldFX: Launching stage '" + stage + "'");
+            Yld.getDebugLogger().log(offscreen == null ? "YieldFX: Launching stage '" + stage + "'" : "YieldFX: Rendering offscreen");
             scene = new Scene(root = new Group());
-            scene.setOnKeyPressed(e -> pressing.add(e.getCode().getCode()));
-            scene.setOnKeyReleased(e -> pressing.remove(e.getCode().getCode()));
-            scene.setOnMouseMoved(e -> {
-                mouseX = (int) (e.getX() / stage.getWidth() * canvas.getWidth());
-                mouseY = (int) (e.getY() / stage.getHeight() * canvas.getHeight());
-            });
-            scene.setOnMousePressed(e -> pressing.add(-e.getButton().ordinal()));
-            scene.setOnMouseReleased(e -> pressing.remove(-e.getButton().ordinal()));
-            stage.setScene(scene);
-            stage.setOnCloseRequest(e -> Yld.exit());
-            root.getChildren().add(canvas);
+            root.getChildren().addAll(staticLayer.getCanvas(), canvas);
             GraphicsContext g = canvas.getGraphicsContext2D();
             g.setImageSmoothing(false);
-            if (configuration.undecorated)
-                stage.initStyle(StageStyle.UNDECORATED);
-            stage.setWidth(configuration.width);
-            stage.setHeight(configuration.height);
-            stage.setResizable(configuration.resizable);
-            stage.setAlwaysOnTop(configuration.alwaysOnTop);
-            stage.setFullScreen(configuration.fullscreen);
-            stage.setTitle(configuration.title);
+            upscale.getGraphicsContext2D().setImageSmoothing(false);
+            snapshot.setFill(Color.TRANSPARENT);
+            if (offscreen == null) {
+                scene.setOnKeyPressed(e -> input.keyPressed(e.getCode().getCode()));
+                scene.setOnKeyReleased(e -> input.keyReleased(e.getCode().getCode()));
+                scene.setOnMouseMoved(e -> input.mouseMoved((int) (e.getX() / stage.getWidth() * initialWidth), (int) (e.getY() / stage.getHeight() * initialHeight)));
+                scene.setOnMouseDragged(e -> input.mouseMoved((int) (e.getX() / stage.getWidth() * initialWidth), (int) (e.getY() / stage.getHeight() * initialHeight)));
+                scene.setOnMousePressed(e -> input.mousePressed(e.getButton().ordinal()));
+                scene.setOnMouseReleased(e -> input.mouseReleased(e.getButton().ordinal()));
+                stage.setScene(scene);
+                stage.setOnCloseRequest(e -> Yld.exit());
+                if (configuration.undecorated)
+                    stage.initStyle(StageStyle.UNDECORATED);
+                stage.setWidth(configuration.width);
+                stage.setHeight(configuration.height);
+                stage.setResizable(configuration.resizable);
+                stage.setAlwaysOnTop(configuration.alwaysOnTop);
+                stage.setFullScreen(configuration.fullscreen);
+                stage.setTitle(configuration.title);
+            }
             configuration.renderMaster = this;
             if (configuration.runOnThisThread) {
                 throw new YieldFXException("YieldFX needs to have the 'runOnThisThread' option to be false.");
             }
-            final int[] antiCrash = new int[]{0};
+            scheduler.setTargetFps(configuration.fps);
             new AnimationTimer() {
                 @Override
                 public void handle(long l) {
-                    canvas.setScaleX(scene.getWidth() / canvas.getWidth());
-                    canvas.setScaleY(scene.getHeight() / canvas.getHeight());
-                    canvas.setTranslateX(scene.getWidth() / 2f - initialWidth / 2f);
-                    canvas.setTranslateY(scene.getHeight() / 2f - initialHeight / 2f);
-                    antiCrash[0]++;
-                    if (antiCrash[0] > 60f / (float) configuration.fps + 2) {
-                        threadTask.execute();
-                        antiCrash[0] = 0;
+                    if (governor.isEnabled() && lastPulse != 0)
+                        renderScale = governor.update(l - lastPulse, renderScale);
+                    lastPulse = l;
+                    if (renderScale != renderPass.getScale())
+                        resizeCanvas();
+                    boolean upscaling = pixelScale > 1;
+                    if (upscaling != (upscale.getParent() == root))
+                        layers(upscaling);
+                    if (upscaling) {
+                        canvas.setScaleX(1);
+                        canvas.setScaleY(1);
+                        canvas.setTranslateX(0);
+                        canvas.setTranslateY(0);
+                    } else if (offscreen == null) {
+                        canvas.setScaleX(scene.getWidth() / canvas.getWidth());
+                        canvas.setScaleY(scene.getHeight() / canvas.getHeight());
+                        canvas.setTranslateX(scene.getWidth() / 2f - canvas.getWidth() / 2f);
+                        canvas.setTranslateY(scene.getHeight() / 2f - canvas.getHeight() / 2f);
                     }
-                    if (bgColor != null) {
-                        antiCrash[0] = 0;
-                        deltaTime = (System.currentTimeMillis() - last) / 1000f;
-                        g.setFill(bgColor);
-                        bgColor = null;
+                    fontCache.warm();
+                    boolean measure = metrics.isEnabled();
+                    boolean presented = frames.acquire();
+                    long start = measure ? System.nanoTime() : 0;
+                    scheduler.pulse(l, presented, threadTask);
+                    long handedOff = measure ? System.nanoTime() : 0;
+                    if (presented) {
+                        FrameBuffer frame = frames.getFront();
+                        last = System.currentTimeMillis();
+                        int from = staticLayer.update(renderPass, frame);
                         g.clearRect(0, 0, canvas.getWidth(), canvas.getHeight());
-                        g.fillRect(0, 0, canvas.getWidth(), canvas.getHeight());
-                        try {
-                            for (Renderable renderable : renderables) {
-                                if (renderable.getType() != RenderableType.IMAGE) {
-                                    if (renderable.getSpecificColor() == null)
-                                        renderable.setSpecificColor(toFXColor(renderable.getColor()));
-                                    g.setFill((Color) renderable.getSpecificColor());
-                                }
-                                g.save();
-                                rotate(g, -renderable.getRotation(), renderable.getX(), renderable.getY());
-                                switch (renderable.getType()) {
-                                    case LINE:
-                                        g.setLineWidth(renderable.getThickness());
-                                        g.strokeLine(renderable.getX() - renderable.getWidth() / 2f, renderable.getY() - renderable.getHeight() / 2f, renderable.getX() + renderable.getWidth() / 2f, renderable.getY() + renderable.getHeight() / 2f);
-                                        break;
-                                    case RECTANGLE:
-                                        if (renderable.isFilled())
-                                            g.fillRect(renderable.getX() - renderable.getWidth() / 2f, renderable.getY() - renderable.getHeight() / 2f, renderable.getWidth(), renderable.getHeight());
-                                        else {
-                                            g.setLineWidth(renderable.getThickness());
-                                            g.strokeRect(renderable.getX() - renderable.getWidth() / 2f, renderable.getY() - renderable.getHeight() / 2f, renderable.getWidth(), renderable.getHeight());
-                                        }
-                                        break;
-                                    case OVAL:
-                                        if (renderable.isFilled())
-                                            g.fillOval(renderable.getX() - renderable.getWidth() / 2f, renderable.getY() - renderable.getHeight() / 2f, renderable.getWidth(), renderable.getHeight());
-                                        else {
-                                            g.setLineWidth(renderable.getThickness());
-                                            g.strokeOval(renderable.getX() - renderable.getWidth() / 2f, renderable.getY() - renderable.getHeight() / 2f, renderable.getWidth(), renderable.getHeight());
-                                        }
-                                        break;
-                                    case ROUNDED_RECTANGLE:
-                                        if (renderable.isFilled())
-                                            g.fillRoundRect(renderable.getX() - renderable.getWidth() / 2f, renderable.getY() - renderable.getHeight() / 2f, renderable.getWidth(), renderable.getHeight(), renderable.getArcWidth(), renderable.getArcHeight());
-                                        else {
-                                            g.setLineWidth(renderable.getThickness());
-                                            g.strokeRoundRect(renderable.getX() - renderable.getWidth() / 2f, renderable.getY() - renderable.getHeight() / 2f, renderable.getWidth(), renderable.getHeight(), renderable.getArcWidth(), renderable.getArcHeight());
-                                        }
-                                        break;
-                                    case IMAGE:
-                                        g.drawImage((Image) renderable.getSpecific(), renderable.getX() - renderable.getWidth() / 2f, renderable.getY() - renderable.getHeight() / 2f, renderable.getWidth(), renderable.getHeight());
-                                        break;
-                                    case TEXT:
-                                        String[] ss = renderable.getSpecific().toString().split("\1");
-                                        g.setFont(fonts.get(ss[1]));
-                                        g.fillText(ss[0], renderable.getX() - getStringWidth(ss[0], ss[1]) / 2f, renderable.getY() + getStringHeight(ss[0], ss[1]) / 4f);
-                                        break;
-                                }
-                                g.restore();
-                            }
-                        } catch (ConcurrentModificationException ignore) {
+                        if (!staticLayer.isEnabled()) {
+                            g.setFill(frame.getBgColor());
+                            g.fillRect(0, 0, canvas.getWidth(), canvas.getHeight());
                         }
-                        last = System.currentTimeMillis();
-                        threadTask.execute();
+                        renderPass.begin(g);
+                        renderPass.render(g, frame, from);
+                        renderPass.end(g);
+                        if (upscaling)
+                            upscale();
+                        textures.endFrame();
+                        if (offscreen != null)
+                            offscreen.capture(root, (int) (upscaling ? upscale : canvas).getWidth(), (int) (upscaling ? upscale : canvas).getHeight());
+                        if (measure)
+                            metrics.frame(System.nanoTime() - handedOff, handedOff - start, frames.getSkipped());
                     }
                 }
             }.start();
-            stage.getIcons().add((Image) windowConfiguration.icon.getSpecificImage());
-            stage.show();
-            stage.setWidth(windowConfiguration.width + (stage.getWidth() - scene.getWidth()));
-            stage.setHeight(windowConfiguration.height + (stage.getHeight() - scene.getHeight()));
+            if (offscreen == null) {
+                stage.getIcons().add(getImage(windowConfiguration.icon));
+                stage.show();
+                stage.setWidth(windowConfiguration.width + (stage.getWidth() - scene.getWidth()));
+                stage.setHeight(windowConfiguration.height + (stage.getHeight() - scene.getHeight()));
+            }
         });
 
         return new SampleWindow() {
             @Override
             public int getWidth() {
-                return (int) stage.getWidth();
+                return offscreen == null ? (int) stage.getWidth() : initialWidth;
             }
 
             @Override
             public int getHeight() {
-                return (int) stage.getHeight();
+                return offscreen == null ? (int) stage.getHeight() : initialHeight;
             }
         };
     }
 
     @Override
     public void frameEnd(com.xebisco.yield.Color color, int i, int i1, int i2, int i3, float v, float v1) {
-        bgColor = toFXColor(color);
+        if (bgColor == null || bgColor.getRed() != color.getR() || bgColor.getGreen() != color.getG() || bgColor.getBlue() != color.getB() || bgColor.getOpacity() != color.getA())
+            bgColor = toFXColor(color);
+        FrameBuffer frame = frames.getBack();
+        frame.setBgColor(bgColor);
+        frame.setTextCache(textCache);
+        tileChunks.clear();
+        for (TileMap tileMap : tileMaps)
+            tileMap.collect(tileChunks);
+        frame.fill(renderables, staticLayer, tileChunks);
+        renderPass.sort(frame);
+        frame.index(renderPass.isCulling() ? renderPass.getIndexThreshold() : 0, renderPass.getCellSize());
+        frames.publish();
+        input.endFrame();
+        scheduler.frameEnd(threadTask);
+        deltaTime = scheduler.getLastFrameTime() / 1_000_000_000f;
     }
 
     @Override
     public void onResize(int i, int i1) {
         Yld.getDebugLogger().log("YieldFX: Resized to " + i + "x" + i1);
-        canvas.setWidth(i);
-        canvas.setHeight(i1);
-        canvas.resize(i, i1);
         initialWidth = i;
         initialHeight = i1;
+        resizeCanvas();
+    }
+
+    private void resizeCanvas() {
+        double scale = renderScale;
+        int w = (int) Math.max(1, Math.round(initialWidth * scale)), h = (int) Math.max(1, Math.round(initialHeight * scale));
+        canvas.setWidth(w);
+        canvas.setHeight(h);
+        canvas.resize(w, h);
+        renderPass.setScale(scale);
+    }
+
+    /**
+     * Swaps the layer canvases for the full-size {@code upscale} canvas while pixel scaling, so only the nearest-neighbour copy is shown. The low
+     * resolution canvases keep rendering detached and are read back with snapshots.
+     */
+    private void layers(boolean upscaling) {
+        if (upscaling)
+            root.getChildren().setAll(upscale);
+        else
+            root.getChildren().setAll(staticLayer.getCanvas(), canvas);
+        staticRedraws = -1;
+    }
+
+    private void upscale() {
+        double w = offscreen == null ? scene.getWidth() : initialWidth, h = offscreen == null ? scene.getHeight() : initialHeight;
+        if (upscale.getWidth() != w || upscale.getHeight() != h) {
+            upscale.setWidth(w);
+            upscale.setHeight(h);
+        }
+        GraphicsContext u = upscale.getGraphicsContext2D();
+        u.clearRect(0, 0, w, h);
+        if (staticLayer.isEnabled()) {
+            Canvas layer = staticLayer.getCanvas();
+            if (staticImage == null || staticImage.getWidth() != layer.getWidth() || staticImage.getHeight() != layer.getHeight()) {
+                staticImage = new WritableImage((int) layer.getWidth(), (int) layer.getHeight());
+                staticRedraws = -1;
+            }
+            if (staticLayer.getRedraws() != staticRedraws) {
+                layer.snapshot(snapshot, staticImage);
+                staticRedraws = staticLayer.getRedraws();
+            }
+            u.drawImage(staticImage, 0, 0, w, h);
+        }
+        if (lowRes == null || lowRes.getWidth() != canvas.getWidth() || lowRes.getHeight() != canvas.getHeight())
+            lowRes = new WritableImage((int) canvas.getWidth(), (int) canvas.getHeight());
+        canvas.snapshot(snapshot, lowRes);
+        u.drawImage(lowRes, 0, 0, w, h);
+    }
+
+    public void setRenderScale(double renderScale) {
+        if (renderScale <= 0)
+            throw new YieldFXException("YieldFX: Render scale must be positive, got " + renderScale);
+        this.renderScale = renderScale;
+        pixelScale = 0;
+    }
+
+    /**
+     * Renders at {@code 1 / pixelScale} of the window size and copies each frame to the window with nearest-neighbour sampling, for crisp pixel art.
+     * Disables the governor; {@link #setRenderScale} or a pixel scale of 1 goes back to drawing the canvas directly.
+     */
+    public void setPixelScale(int pixelScale) {
+        if (pixelScale < 1)
+            throw new YieldFXException("YieldFX: Pixel scale must be at least 1, got " + pixelScale);
+        governor.setEnabled(false);
+        setRenderScale(1.0 / pixelScale);
+        this.pixelScale = pixelScale;
+    }
+
+    public int getPixelScale() {
+        return Math.max(pixelScale, 1);
+    }
+
+    public double getRenderScale() {
+        return renderScale;
+    }
+
+    public RenderScaleGovernor getGovernor() {
+        return governor;
     }
 
     @Override
@@ -265,7 +378,7 @@ public class YieldFX extends Application implements RenderMaster {
 
     @Override
     public float fpsCount() {
-        return 1000f / (deltaTime * 1000f);
+        return scheduler.getFps();
     }
 
     @Override
@@ -275,12 +388,12 @@ public class YieldFX extends Application implements RenderMaster {
 
     @Override
     public int mouseX() {
-        return mouseX;
+        return input.getMouseX();
     }
 
     @Override
     public int mouseY() {
-        return mouseY;
+        return input.getMouseY();
     }
 
     @Override
@@ -290,74 +403,136 @@ public class YieldFX extends Application implements RenderMaster {
 
     @Override
     public float getStringWidth(String s, String s1) {
-        javafx.scene.text.Text text = new Text(s);
-        text.setFont(fonts.get(s1));
-        return (float) text.getBoundsInLocal().getWidth();
+        return textCache.get(s, s1).getWidth();
     }
 
     @Override
     public float getStringHeight(String s, String s1) {
-        javafx.scene.text.Text text = new Text(s);
-        text.setFont(fonts.get(s1));
-        return (float) text.getBoundsInLocal().getHeight();
+        return textCache.get(s, s1).getHeight();
     }
 
     @Override
     public void loadAudioClip(AudioClip audioClip, AudioPlayer audioPlayer) {
         String path = audioClip.getCachedPath();
         if (!path.startsWith("/")) path = "/" + path;
-        Media media = new Media(Objects.requireNonNull(YieldFX.class.getResource(path)).toExternalForm());
-        MediaPlayer player = new MediaPlayer(media);
-        player.setOnEndOfMedia(player::stop);
-        players.put(audioPlayer.getPlayerID(), player);
+        URL url = Objects.requireNonNull(YieldFX.class.getResource(path));
+        String source = url.toExternalForm();
+        Media media = medias.computeIfAbsent(source, Media::new);
+        long length = contentLength(url);
+        if (length >= 0 && length <= effectMaxBytes) {
+            voicePool.preload(source);
+            effects.put(audioPlayer.getPlayerID(), new VoicePool.Effect(source));
+        } else {
+            MediaPlayer player = new MediaPlayer(media);
+            player.setOnEndOfMedia(player::stop);
+            players.put(audioPlayer.getPlayerID(), player);
+        }
         if (audioClip.isFlushAfterLoad())
             audioClip.flush();
     }
 
+    /**
+     * Returns the size of a resource, or -1 if it can't be read. The connection is opened uncached and closed, so jar: URLs don't keep their jar file open.
+     */
+    private static long contentLength(URL url) {
+        try {
+            URLConnection connection = url.openConnection();
+            connection.setUseCaches(false);
+            InputStream in = connection.getInputStream();
+            try {
+                return connection.getContentLengthLong();
+            } finally {
+                in.close();
+            }
+        } catch (IOException e) {
+            return -1;
+        }
+    }
+
     @Override
     public void setMicrosecondPosition(AudioPlayer audioPlayer, long l) {
+        VoicePool.Effect effect = effects.get(audioPlayer.getPlayerID());
+        if (effect != null) {
+            if (l == 0)
+                voicePool.stop(effect);
+            return;
+        }
         MediaPlayer player = players.get(audioPlayer.getPlayerID());
         player.seek(new Duration(l / 1000f));
     }
 
     @Override
     public long getMicrosecondPosition(AudioPlayer audioPlayer) {
+        VoicePool.Effect effect = effects.get(audioPlayer.getPlayerID());
+        if (effect != null)
+            return voicePool.isPlaying(effect) ? (System.nanoTime() - effect.getStarted()) / 1_000_000L : 0;
         MediaPlayer player = players.get(audioPlayer.getPlayerID());
         return (long) player.currentTimeProperty().get().toMillis();
     }
 
     @Override
     public long getMicrosecondLength(AudioPlayer audioPlayer) {
+        VoicePool.Effect effect = effects.get(audioPlayer.getPlayerID());
+        if (effect != null) {
+            Duration duration = medias.get(effect.getUrl()).getDuration();
+            return duration == null ? 0 : (long) duration.toMillis();
+        }
         MediaPlayer player = players.get(audioPlayer.getPlayerID());
         return (long) player.getTotalDuration().toMillis();
     }
 
     @Override
     public float getVolume(AudioPlayer audioPlayer) {
+        VoicePool.Effect effect = effects.get(audioPlayer.getPlayerID());
+        if (effect != null)
+            return (float) effect.getVolume();
         MediaPlayer player = players.get(audioPlayer.getPlayerID());
         return (float) player.getVolume();
     }
 
     @Override
     public void setVolume(AudioPlayer audioPlayer, float v) {
+        VoicePool.Effect effect = effects.get(audioPlayer.getPlayerID());
+        if (effect != null) {
+            effect.setVolume(v);
+            return;
+        }
         MediaPlayer player = players.get(audioPlayer.getPlayerID());
         player.setVolume(v);
     }
 
+    /**
+     * Pauses a streamed player. Short clips played as effects can't be paused, so they are stopped, and {@link #resumePlayer} plays them from the start.
+     */
     @Override
     public void pausePlayer(AudioPlayer audioPlayer) {
+        VoicePool.Effect effect = effects.get(audioPlayer.getPlayerID());
+        if (effect != null) {
+            voicePool.stop(effect);
+            return;
+        }
         MediaPlayer player = players.get(audioPlayer.getPlayerID());
         player.pause();
     }
 
     @Override
     public void resumePlayer(AudioPlayer audioPlayer) {
+        VoicePool.Effect effect = effects.get(audioPlayer.getPlayerID());
+        if (effect != null) {
+            voicePool.play(effect);
+            return;
+        }
         MediaPlayer player = players.get(audioPlayer.getPlayerID());
         player.play();
     }
 
     @Override
     public void unloadPlayer(AudioPlayer audioPlayer) {
+        VoicePool.Effect effect = effects.remove(audioPlayer.getPlayerID());
+        if (effect != null) {
+            voicePool.stop(effect);
+            return;
+        }
         MediaPlayer player = players.get(audioPlayer.getPlayerID());
         players.remove(audioPlayer.getPlayerID());
         player.dispose();
@@ -369,10 +544,18 @@ public class YieldFX extends Application implements RenderMaster {
             player.dispose();
         }
         players.clear();
+        effects.clear();
+        voicePool.clear();
+        medias.clear();
     }
 
     @Override
     public void setLoop(AudioPlayer audioPlayer, boolean b) {
+        VoicePool.Effect effect = effects.get(audioPlayer.getPlayerID());
+        if (effect != null) {
+            effect.setCycleCount(b ? javafx.scene.media.AudioClip.INDEFINITE : 1);
+            return;
+        }
         MediaPlayer player = players.get(audioPlayer.getPlayerID());
         if (b)
             player.setOnEndOfMedia(() -> {
@@ -384,6 +567,11 @@ public class YieldFX extends Application implements RenderMaster {
 
     @Override
     public void setLoop(AudioPlayer audioPlayer, int i) {
+        VoicePool.Effect effect = effects.get(audioPlayer.getPlayerID());
+        if (effect != null) {
+            effect.setCycleCount(i + 1);
+            return;
+        }
         MediaPlayer player = players.get(audioPlayer.getPlayerID());
         playersLoop.put(audioPlayer.getPlayerID(), i);
         player.setOnEndOfMedia(() -> {
@@ -401,6 +589,9 @@ public class YieldFX extends Application implements RenderMaster {
 
     @Override
     public boolean isPlayerRunning(AudioPlayer audioPlayer) {
+        VoicePool.Effect effect = effects.get(audioPlayer.getPlayerID());
+        if (effect != null)
+            return voicePool.isPlaying(effect);
         MediaPlayer player = players.get(audioPlayer.getPlayerID());
         return player.getStatus().equals(MediaPlayer.Status.PLAYING);
     }
@@ -412,16 +603,46 @@ public class YieldFX extends Application implements RenderMaster {
 
     @Override
     public void loadTexture(Texture texture) {
-        loadTexture(texture, new Image(texture.getInputStream()));
+        long start = metrics.isEnabled() ? System.nanoTime() : 0;
+        loadFile(texture, new Image(texture.getInputStream()));
+        if (start != 0)
+            metrics.textureWork("load", System.nanoTime() - start);
+    }
+
+    public CompletableFuture<Texture> loadTextureAsync(Texture texture) {
+        return getTextureLoader().load(texture);
+    }
+
+    public CompletableFuture<Void> loadTexturesAsync(Collection<Texture> textures, BiConsumer<Integer, Integer> progress) {
+        return getTextureLoader().load(textures, progress);
     }
 
     public void loadTexture(Texture texture, Image image) {
-        texture.setWidth((int) image.getWidth());
-        texture.setHeight((int) image.getHeight());
-        texture.setSpecificImage(new WritableImage(image.getPixelReader(), texture.getWidth(), texture.getHeight()));
+        attachTexture(texture, new WritableImage(image.getPixelReader(), (int) image.getWidth(), (int) image.getHeight()), false);
+    }
+
+    void loadFile(Texture texture, Image image) {
+        attachTexture(texture, new WritableImage(image.getPixelReader(), (int) image.getWidth(), (int) image.getHeight()), true);
+    }
+
+    /**
+     * Attaches pixels to a texture; {@code file} is true only when they are the unmodified contents of {@code getCachedPath()}, which makes the
+     * texture evictable.
+     */
+    void attachTexture(Texture texture, WritableImage image, boolean file) {
+        freeRegion(texture);
+        TextureView view = atlas == null ? null : atlas.add(image);
+        attach(texture, view == null ? image : view, view == null ? new TextureView(image, false, false) : view, view != null, file);
+    }
+
+    private void attach(Texture texture, Object specific, TextureView view, boolean packed, boolean file) {
+        masks.remove(texture);
+        texture.setWidth(view.getWidth());
+        texture.setHeight(view.getHeight());
+        texture.setSpecificImage(specific);
         texture.setVisualUtils(this);
 
-        Texture x = new Texture(""), y = new Texture(""), xy = new Texture("");
+        Texture x = variant(texture.getInvertedX()), y = variant(texture.getInvertedY()), xy = variant(texture.getInvertedXY());
         x.setWidth(texture.getWidth());
         y.setWidth(texture.getWidth());
         xy.setWidth(texture.getWidth());
@@ -432,92 +653,137 @@ public class YieldFX extends Application implements RenderMaster {
         y.setVisualUtils(this);
         xy.setVisualUtils(this);
 
-        Canvas c = new Canvas(image.getWidth(), image.getHeight());
-
-        Platform.runLater(() -> {
-            GraphicsContext g = c.getGraphicsContext2D();
-            g.clearRect(0, 0, c.getWidth(), c.getHeight());
-            g.drawImage(image, image.getWidth(), 0, -image.getWidth(), image.getHeight());
-            g.save();
-            WritableImage xi = new WritableImage(texture.getWidth(), texture.getHeight());
-            c.snapshot(new SnapshotParameters(), xi);
-            x.setSpecificImage(xi);
-
-            g.clearRect(0, 0, c.getWidth(), c.getHeight());
-            g.drawImage(image, 0, image.getHeight(), image.getWidth(), -image.getHeight());
-            g.save();
-            WritableImage yi = new WritableImage(texture.getWidth(), texture.getHeight());
-            c.snapshot(new SnapshotParameters(), yi);
-            y.setSpecificImage(yi);
-
-
-            g.clearRect(0, 0, c.getWidth(), c.getHeight());
-            g.drawImage(image, image.getWidth(), image.getHeight(), -image.getWidth(), -image.getHeight());
-            g.save();
-            WritableImage xyi = new WritableImage(texture.getWidth(), texture.getHeight());
-            c.snapshot(new SnapshotParameters(), xyi);
-            xy.setSpecificImage(xyi);
-
-        });
+        x.setSpecificImage(view.flipped(true, false));
+        y.setSpecificImage(view.flipped(false, true));
+        xy.setSpecificImage(view.flipped(true, true));
         texture.setInvertedX(x);
         texture.setInvertedY(y);
         texture.setInvertedXY(xy);
+        textures.register(texture, packed, file);
 
         if (texture.isFlushAfterLoad())
             texture.flush();
 
     }
 
+    private static Texture variant(Texture existing) {
+        return existing == null ? new Texture("") : existing;
+    }
+
+    private Object specific(Texture texture) {
+        Object specific;
+        do {
+            textures.resident(texture);
+            specific = texture.getSpecificImage();
+        } while (specific instanceof EvictedTexture);
+        return specific;
+    }
+
+    /**
+     * Returns the pixels of a texture as a JavaFX {@link Image}. {@code Texture.getSpecificImage()} is no longer always an {@code Image}: flipped
+     * variants, cuts and atlas-packed textures hold a {@link TextureView}, and evicted textures an {@link EvictedTexture}. This reloads an evicted
+     * texture and copies a view into its own image, so code that cast the specific image to {@code Image} should call this instead.
+     */
+    public Image getImage(Texture texture) {
+        return TextureView.toImage(specific(texture));
+    }
+
     public static WritableImage copyImage(Image image) {
         int height = (int) image.getHeight();
         int width = (int) image.getWidth();
-        PixelReader pixelReader = image.getPixelReader();
         WritableImage writableImage = new WritableImage(width, height);
-        PixelWriter pixelWriter = writableImage.getPixelWriter();
+        writableImage.getPixelWriter().setPixels(0, 0, width, height, image.getPixelReader(), 0, 0);
+        return writableImage;
+    }
 
-        for (int y = 0; y < height; y++) {
-            for (int x = 0; x < width; x++) {
-                javafx.scene.paint.Color color = pixelReader.getColor(x, y);
-                pixelWriter.setColor(x, y, color);
-            }
+    private WritableImage writeTarget(Texture texture) {
+        masks.remove(texture);
+        Object specific = specific(texture);
+        textures.modified(texture);
+        staticLayer.invalidate();
+        for (TileMap tileMap : tileMaps)
+            tileMap.textureChanged(texture);
+        boolean view = specific instanceof TextureView;
+        if ((!view || ((TextureView) specific).isOwner()) && isCut(specific)) {
+            WritableImage copy = view ? ((TextureView) specific).toImage() : copyImage((Image) specific);
+            attach(texture, copy, new TextureView(copy, false, false), false, false);
+            return copy;
         }
-        return writableImage;
+        if (view) {
+            TextureView region = (TextureView) specific;
+            if (region.isOwner() && region.getSource() instanceof WritableImage)
+                return (WritableImage) region.getSource();
+            specific = region.toImage();
+            texture.setSpecificImage(specific);
+            textures.update(texture);
+        }
+        return (WritableImage) specific;
     }
 
-    private WritableImage resample(Image input, float xScaleFactor, float yScaleFactor) {
-        final int W = (int) input.getWidth();
-        final int H = (int) input.getHeight();
+    /**
+     * Records a rectangle of an image that cuts share, so writing to a texture owning pixels in it copies them first.
+     */
+    private void cut(Image source, int x, int y, int width, int height) {
+        synchronized (cutRegions) {
+            cutRegions.computeIfAbsent(source, k -> new ArrayList<>()).add(new int[]{x, y, width, height});
+        }
+    }
 
-        WritableImage output = new WritableImage(
-                (int) (W * xScaleFactor),
-                (int) (H * yScaleFactor)
-        );
+    private boolean isCut(Object specific) {
+        Image source = TextureView.source(specific);
+        int x = 0, y = 0, w = (int) source.getWidth(), h = (int) source.getHeight();
+        if (specific instanceof TextureView) {
+            TextureView view = (TextureView) specific;
+            x = view.getX();
+            y = view.getY();
+            w = view.getWidth();
+            h = view.getHeight();
+        }
+        synchronized (cutRegions) {
+            List<int[]> regions = cutRegions.get(source);
+            if (regions != null)
+                for (int[] r : regions)
+                    if (r[0] < x + w && x < r[0] + r[2] && r[1] < y + h && y < r[1] + r[3])
+                        return true;
+        }
+        return false;
+    }
 
-        PixelReader reader = input.getPixelReader();
-        PixelWriter writer = output.getPixelWriter();
+    private static int viewX(Texture texture) {
+        return texture.getSpecificImage() instanceof TextureView ? ((TextureView) texture.getSpecificImage()).getX() : 0;
+    }
 
-        for (int y = 0; y < H; y++) {
-            for (int x = 0; x < W; x++) {
-                final int argb = reader.getArgb(x, y);
-                for (int dy = 0; dy < yScaleFactor; dy++) {
-                    for (int dx = 0; dx < xScaleFactor; dx++) {
-                        writer.setArgb((int) (x * xScaleFactor + dx), (int) (y * yScaleFactor + dy), argb);
-                    }
-                }
-            }
-        }
+    private static int viewY(Texture texture) {
+        return texture.getSpecificImage() instanceof TextureView ? ((TextureView) texture.getSpecificImage()).getY() : 0;
+    }
+
+    /**
+     * Gives the atlas region of a packed texture back to the atlas. Cuts of the texture share that region, so unload them first.
+     */
+    private void freeRegion(Texture texture) {
+        if (atlas != null && texture.getSpecificImage() instanceof TextureView)
+            atlas.free((TextureView) texture.getSpecificImage());
+    }
 
-        return output;
+    private static void checkBounds(Texture texture, int x, int y, int width, int height) {
+        if (x < 0 || y < 0 || width < 0 || height < 0 || x + width > texture.getWidth() || y + height > texture.getHeight())
+            throw new YieldFXException("YieldFX: Pixel rectangle " + x + "," + y + " " + width + "x" + height + " is outside the "
+                    + texture.getWidth() + "x" + texture.getHeight() + " texture '" + texture.getCachedPath() + "'.");
     }
 
     @Override
     public void unloadTexture(Texture texture) {
-        texture.setSpecificImage(null);
+        freeRegion(texture);
+        textures.unload(texture);
+        masks.remove(texture);
     }
 
     @Override
     public void unloadAllTextures() {
-
+        textures.unloadAll();
+        masks.clear();
+        if (atlas != null)
+            atlas.clear();
     }
 
     @Override
@@ -528,89 +794,284 @@ public class YieldFX extends Application implements RenderMaster {
 
     @Override
     public void loadFont(String s, String s1, float v, int i) {
-        FontWeight weight = FontWeight.NORMAL;
-        if (i == 1) {
-            weight = FontWeight.BOLD;
-        }
-        Font font;
-        if (i == 2) font = Font.font(s1, FontPosture.ITALIC, v);
-        else font = Font.font(s1, weight, v);
-        fonts.put(s, font);
+        fonts.put(s, fontCache.family(s1, v, i));
+        textCache.invalidate(s);
     }
 
     @Override
     public void loadFont(String s, float v, float v1, int i, RelativeFile relativeFile) {
-        fonts.put(s, Font.loadFont(relativeFile.getInputStream(), v));
+        long parses = fontCache.getParses();
+        fonts.put(s, fontCache.file(relativeFile, v));
+        textCache.invalidate(s);
+        if (metrics.isEnabled() && fontCache.getParses() != parses)
+            metrics.fontLoad();
+    }
+
+    public void preloadFont(String font) {
+        preloadFont(font, fontCache.getCharacters());
+    }
+
+    public void preloadFont(String font, String characters) {
+        Font f = fonts.get(font);
+        if (f == null)
+            throw new YieldFXException("YieldFX: Font '" + font + "' is not loaded");
+        fontCache.preload(f, characters);
     }
 
     @Override
     public void unloadFont(String s) {
-        fonts.remove(s);
+        Font font = fonts.remove(s);
+        if (font != null)
+            renderPass.getGlyphAtlas().remove(font);
+        textCache.invalidate(s);
+    }
+
+    public int[] getTextureArgb(Texture texture) {
+        int[] argb = new int[texture.getWidth() * texture.getHeight()];
+        getTextureArgb(texture, argb, 0, texture.getWidth());
+        return argb;
+    }
+
+    public void getTextureArgb(Texture texture, int[] argb, int offset, int stride) {
+        Object specific = specific(texture);
+        if (specific instanceof TextureView)
+            ((TextureView) specific).readArgb(argb, offset, stride);
+        else
+            ((Image) specific).getPixelReader().getPixels(0, 0, texture.getWidth(), texture.getHeight(), PixelFormat.getIntArgbInstance(), argb, offset, stride);
+    }
+
+    public void getTextureArgb(Texture texture, IntBuffer argb) {
+        Object specific = specific(texture);
+        if (specific instanceof TextureView) {
+            TextureView view = (TextureView) specific;
+            if (view.isFlipX() || view.isFlipY()) {
+                argb.put(getTextureArgb(texture));
+                return;
+            }
+            view.getSource().getPixelReader().getPixels(view.getX(), view.getY(), view.getWidth(), view.getHeight(), PixelFormat.getIntArgbInstance(), argb, view.getWidth());
+        } else
+            ((Image) specific).getPixelReader().getPixels(0, 0, texture.getWidth(), texture.getHeight(), PixelFormat.getIntArgbInstance(), argb, texture.getWidth());
+    }
+
+    public void setTextureArgb(Texture texture, int[] argb) {
+        setPixels(texture, 0, 0, texture.getWidth(), texture.getHeight(), argb, 0, texture.getWidth());
+    }
+
+    public void setTextureArgb(Texture texture, IntBuffer argb) {
+        if (argb.remaining() < texture.getWidth() * texture.getHeight())
+            throw new YieldFXException("YieldFX: Expected " + texture.getWidth() * texture.getHeight() + " pixels for texture '" + texture.getCachedPath()
+                    + "', got " + argb.remaining() + ".");
+        WritableImage image = writeTarget(texture);
+        image.getPixelWriter().setPixels(viewX(texture), viewY(texture), texture.getWidth(), texture.getHeight(), PixelFormat.getIntArgbInstance(), argb, texture.getWidth());
+    }
+
+    public void setPixels(Texture texture, int x, int y, int width, int height, int[] argb, int offset, int stride) {
+        checkBounds(texture, x, y, width, height);
+        WritableImage image = writeTarget(texture);
+        image.getPixelWriter().setPixels(viewX(texture) + x, viewY(texture) + y, width, height, PixelFormat.getIntArgbInstance(), argb, offset, stride);
+    }
+
+    public void setPixel(Texture texture, int x, int y, int argb) {
+        checkBounds(texture, x, y, 1, 1);
+        WritableImage image = writeTarget(texture);
+        image.getPixelWriter().setArgb(viewX(texture) + x, viewY(texture) + y, argb);
+    }
+
+    public void applyKernel(Texture texture, PixelKernels.Pixel kernel) {
+        int[] argb = getTextureArgb(texture);
+        PixelKernels.apply(argb, argb, texture.getWidth(), texture.getHeight(), kernel);
+        setTextureArgb(texture, argb);
+    }
+
+    public void applyKernel(Texture texture, PixelKernels.Neighbourhood kernel) {
+        int[] src = getTextureArgb(texture), dst = new int[src.length];
+        PixelKernels.apply(src, dst, texture.getWidth(), texture.getHeight(), kernel);
+        setTextureArgb(texture, dst);
+    }
+
+    public CompletableFuture<Texture> applyKernelAsync(Texture texture, PixelKernels.Pixel kernel) {
+        return applyKernelAsync(texture, kernel, getTextureLoader().getExecutor());
+    }
+
+    /**
+     * Reads the pixels of a texture on the calling thread, runs the kernel on the given executor and writes the result back on the FX thread, so
+     * the image is never written while it is being drawn.
+     */
+    public CompletableFuture<Texture> applyKernelAsync(Texture texture, PixelKernels.Pixel kernel, Executor executor) {
+        int[] argb = getTextureArgb(texture);
+        int width = texture.getWidth(), height = texture.getHeight();
+        return CompletableFuture.supplyAsync(() -> {
+            PixelKernels.apply(argb, argb, width, height, kernel);
+            return argb;
+        }, executor).thenApplyAsync(result -> {
+            setTextureArgb(texture, result);
+            return texture;
+        }, Platform::runLater);
+    }
+
+    public void tintTexture(Texture texture, com.xebisco.yield.Color color) {
+        applyKernel(texture, PixelKernels.tint(toArgb(color)));
+    }
+
+    public void grayscaleTexture(Texture texture) {
+        applyKernel(texture, PixelKernels.grayscale());
+    }
+
+    public TileMap createTileMap(Texture tileset, int tileWidth, int tileHeight, int columns, int rows) {
+        TileMap tileMap = new TileMap(this, tileset, tileWidth, tileHeight, columns, rows);
+        tileMaps.add(tileMap);
+        return tileMap;
+    }
+
+    public void addTileMap(TileMap tileMap) {
+        tileMaps.add(tileMap);
+    }
+
+    public void removeTileMap(TileMap tileMap) {
+        tileMaps.remove(tileMap);
+    }
+
+    public List<TileMap> getTileMaps() {
+        return tileMaps;
+    }
+
+    public CollisionMask getCollisionMask(Texture texture) {
+        return getCollisionMask(texture, false, false);
+    }
+
+    public CollisionMask getCollisionMask(Texture texture, boolean flipX, boolean flipY) {
+        CollisionMask[] variants = masks.computeIfAbsent(texture, t -> new CollisionMask[4]);
+        int i = (flipX ? 1 : 0) | (flipY ? 2 : 0);
+        CollisionMask mask = variants[i];
+        if (mask == null) {
+            if (variants[0] == null)
+                variants[0] = CollisionMask.fromArgb(getTextureArgb(texture), texture.getWidth(), texture.getHeight(), maskThreshold);
+            mask = i == 0 ? variants[0] : variants[0].flipped(flipX, flipY);
+            variants[i] = mask;
+        }
+        return mask;
+    }
+
+    public boolean collides(Texture a, int ax, int ay, Texture b, int bx, int by) {
+        return getCollisionMask(a).overlaps(getCollisionMask(b), bx - ax, by - ay);
     }
 
     @Override
     public com.xebisco.yield.Color[][] getTextureColors(Texture texture) {
-        final com.xebisco.yield.Color[][] colors = new com.xebisco.yield.Color[texture.getWidth()][texture.getHeight()];
-        for (int x = 0; x < texture.getWidth(); x++)
-            for (int y = 0; y < texture.getHeight(); y++) {
-                colors[x][y] = toYieldColor(((Image) texture.getSpecificImage()).getPixelReader().getColor(x, y));
-            }
+        int width = texture.getWidth(), height = texture.getHeight();
+        int[] argb = getTextureArgb(texture);
+        final com.xebisco.yield.Color[][] colors = new com.xebisco.yield.Color[width][height];
+        for (int y = 0, i = 0; y < height; y++)
+            for (int x = 0; x < width; x++, i++)
+                colors[x][y] = toYieldColor(argb[i]);
         return colors;
     }
 
     @Override
     public void setTextureColors(Texture texture, com.xebisco.yield.Color[][] colors) {
-        PixelWriter writer = ((WritableImage) texture.getSpecificImage()).getPixelWriter();
-        for (int x = 0; x < colors.length; x++)
-            for (int y = 0; y < colors[0].length; y++)
-                writer.setColor(x, y, new Color(colors[x][y].getR(), colors[x][y].getG(), colors[x][y].getB(), colors[x][y].getA()));
+        int width = colors.length, height = colors[0].length;
+        int[] argb = new int[width * height];
+        for (int y = 0, i = 0; y < height; y++)
+            for (int x = 0; x < width; x++, i++)
+                argb[i] = toArgb(colors[x][y]);
+        setPixels(texture, 0, 0, width, height, argb, 0, width);
     }
 
     @Override
     public void setPixel(Texture texture, com.xebisco.yield.Color color, Vector2 vector2) {
-        ((WritableImage) texture.getSpecificImage()).getPixelWriter().setColor((int) vector2.x, (int) vector2.y, new Color(color.getR(), color.getG(), color.getB(), color.getA()));
+        setPixel(texture, (int) vector2.x, (int) vector2.y, toArgb(color));
     }
 
     @Override
     public Texture cutTexture(Texture texture, int i, int i1, int i2, int i3) {
+        if (i2 <= 0 || i3 <= 0)
+            throw new YieldFXException("YieldFX: Cannot cut a " + i2 + "x" + i3 + " texture.");
         Texture tex = new Texture("");
-        Canvas c = new Canvas(i2, i3);
-        GraphicsContext g = c.getGraphicsContext2D();
-        g.drawImage((Image) texture.getSpecificImage(), -i, -i1);
-        WritableImage image = new WritableImage(i2, i3);
-        Platform.runLater(() -> {
-            c.snapshot(new SnapshotParameters(), image);
-            loadTexture(tex, image);
-        });
+        if (i >= 0 && i1 >= 0 && i + i2 <= texture.getWidth() && i1 + i3 <= texture.getHeight()) {
+            TextureView view = sourceView(texture).region(i, i1, i2, i3);
+            cut(view.getSource(), view.getX(), view.getY(), view.getWidth(), view.getHeight());
+            attach(tex, view, view, false, false);
+        } else {
+            int[] src = getTextureArgb(texture), argb = new int[i2 * i3];
+            int x0 = Math.max(0, i), y0 = Math.max(0, i1), x1 = Math.min(texture.getWidth(), i + i2), y1 = Math.min(texture.getHeight(), i1 + i3);
+            for (int y = y0; y < y1; y++)
+                System.arraycopy(src, y * texture.getWidth() + x0, argb, (y - i1) * i2 + x0 - i, Math.max(0, x1 - x0));
+            attachTexture(tex, Resampler.toImage(argb, i2, i3), false);
+        }
         return tex;
     }
 
+    /**
+     * Cuts {@code columns * rows} cells of {@code width * height} pixels, starting at ({@code x}, {@code y}), in row-major order.
+     * The cells are views of the source texture, so they are ready right away and share its pixels. Writing to the source, or to a cell, copies the
+     * written texture's pixels first, so the other cells keep what they were cut from.
+     */
+    public Texture[] sliceTexture(Texture texture, int x, int y, int width, int height, int columns, int rows) {
+        if (width <= 0 || height <= 0 || x < 0 || y < 0 || x + width * columns > texture.getWidth() || y + height * rows > texture.getHeight())
+            throw new YieldFXException("YieldFX: Cannot slice " + columns + "x" + rows + " cells of " + width + "x" + height + " from a " + texture.getWidth() + "x" + texture.getHeight() + " texture.");
+        TextureView source = sourceView(texture);
+        TextureView area = source.region(x, y, width * columns, height * rows);
+        cut(area.getSource(), area.getX(), area.getY(), area.getWidth(), area.getHeight());
+        Texture[] cells = new Texture[columns * rows];
+        for (int r = 0, i = 0; r < rows; r++) {
+            for (int c = 0; c < columns; c++, i++) {
+                TextureView view = source.region(x + c * width, y + r * height, width, height);
+                cells[i] = new Texture("");
+                attach(cells[i], view, view, false, false);
+            }
+        }
+        return cells;
+    }
+
+    public Texture[] sliceTexture(Texture texture, int width, int height) {
+        return sliceTexture(texture, 0, 0, width, height, texture.getWidth() / Math.max(1, width), texture.getHeight() / Math.max(1, height));
+    }
+
+    private TextureView sourceView(Texture texture) {
+        Object specific = specific(texture);
+        return specific instanceof TextureView ? (TextureView) specific : new TextureView((Image) specific, false, false);
+    }
+
     @Override
     public Texture duplicate(Texture texture) {
         Texture tex = new Texture(texture.getCachedPath());
-        loadTexture(tex, resample((Image) texture.getSpecificImage(), 1, 1));
+        attachTexture(tex, Resampler.toImage(getTextureArgb(texture), texture.getWidth(), texture.getHeight()), false);
         return tex;
     }
 
     @Override
     public Texture overlayTexture(Texture texture, Texture texture1, Vector2 vector2, Vector2 vector21) {
+        return compositeTexture(texture.getWidth(), texture.getHeight(), new Texture[]{texture, texture1}, new Vector2[]{vector2, vector21});
+    }
+
+    public CompletableFuture<Texture> overlayTextureAsync(Texture texture, Texture texture1, Vector2 vector2, Vector2 vector21) {
+        return compositeTextureAsync(texture.getWidth(), texture.getHeight(), new Texture[]{texture, texture1}, new Vector2[]{vector2, vector21});
+    }
+
+    /**
+     * Blends the layers, in order, over a transparent {@code width * height} texture, each with its top-left corner at its offset.
+     * Runs on the calling thread without touching the scene graph.
+     */
+    public Texture compositeTexture(int width, int height, Texture[] layers, Vector2[] offsets) {
+        long start = metrics.isEnabled() ? System.nanoTime() : 0;
+        int[] argb = new int[width * height];
+        for (int i = 0; i < layers.length; i++)
+            Compositor.over(argb, width, height, getTextureArgb(layers[i]), layers[i].getWidth(), layers[i].getHeight(), Math.round(offsets[i].x), Math.round(offsets[i].y));
         Texture tex = new Texture("");
-        Canvas c = new Canvas(texture.getWidth(), texture.getHeight());
-        GraphicsContext g = c.getGraphicsContext2D();
-        g.drawImage((Image) texture.getSpecificImage(), vector2.x, vector2.y);
-        g.drawImage((Image) texture1.getSpecificImage(), vector21.x, vector21.y);
-        WritableImage image = new WritableImage(texture.getWidth(), texture.getHeight());
-        Platform.runLater(() -> {
-            c.snapshot(new SnapshotParameters(), image);
-            loadTexture(tex, image);
-        });
+        attachTexture(tex, Resampler.toImage(argb, width, height), false);
+        if (start != 0)
+            metrics.textureWork("composite", System.nanoTime() - start);
         return tex;
     }
 
+    public CompletableFuture<Texture> compositeTextureAsync(int width, int height, Texture[] layers, Vector2[] offsets) {
+        return CompletableFuture.supplyAsync(() -> compositeTexture(width, height, layers, offsets));
+    }
+
     @Override
     public Texture scaleTexture(Texture texture, int i, int i1) {
         Texture tex = new Texture(texture.getCachedPath());
-        loadTexture(tex, resample((Image) texture.getSpecificImage(), (float) i / (float) texture.getWidth(), (float) i1 / (float) texture.getHeight()));
+        attachTexture(tex, Resampler.toImage(Resampler.resample(getTextureArgb(texture), texture.getWidth(), texture.getHeight(), i, i1, scaleFilter), i, i1), false);
         return tex;
     }
 
@@ -642,12 +1103,53 @@ public class YieldFX extends Application implements RenderMaster {
         return canvas;
     }
 
+    public RenderPass getRenderPass() {
+        return renderPass;
+    }
+
+    public FrameHandoff getFrames() {
+        return frames;
+    }
+
+    public FrameScheduler getScheduler() {
+        return scheduler;
+    }
+
     public Map<String, Font> getFonts() {
         return fonts;
     }
 
     public void setFonts(Map<String, Font> fonts) {
         this.fonts = fonts;
+        textCache.clear();
+    }
+
+    public FontCache getFontCache() {
+        return fontCache;
+    }
+
+    public TextCache getTextCache() {
+        return textCache;
+    }
+
+    public TextureRegistry getTextures() {
+        return textures;
+    }
+
+    public OffscreenTarget getOffscreen() {
+        return offscreen;
+    }
+
+    public void setOffscreen(OffscreenTarget offscreen) {
+        this.offscreen = offscreen;
+    }
+
+    public StaticLayer getStaticLayer() {
+        return staticLayer;
+    }
+
+    public RenderMetrics getMetrics() {
+        return metrics;
     }
 
     public Group getRoot() {
@@ -659,19 +1161,23 @@ public class YieldFX extends Application implements RenderMaster {
     }
 
     public int getMouseX() {
-        return mouseX;
+        return input.getMouseX();
     }
 
     public void setMouseX(int mouseX) {
-        this.mouseX = mouseX;
+        input.mouseMoved(mouseX, input.getMouseY());
     }
 
     public int getMouseY() {
-        return mouseY;
+        return input.getMouseY();
     }
 
     public void setMouseY(int mouseY) {
-        this.mouseY = mouseY;
+        input.mouseMoved(input.getMouseX(), mouseY);
+    }
+
+    public InputState getInput() {
+        return input;
     }
 
     public YldTask getThreadTask() {
@@ -686,10 +1192,65 @@ public class YieldFX extends Application implements RenderMaster {
         this.scene = scene;
     }
 
+    public synchronized TextureLoader getTextureLoader() {
+        if (textureLoader == null)
+            textureLoader = new TextureLoader(this, Runtime.getRuntime().availableProcessors());
+        return textureLoader;
+    }
+
+    public synchronized void setTextureLoader(TextureLoader textureLoader) {
+        this.textureLoader = textureLoader;
+    }
+
+    public TextureAtlas getAtlas() {
+        return atlas;
+    }
+
+    public void setAtlas(TextureAtlas atlas) {
+        this.atlas = atlas;
+    }
+
+    public int getMaskThreshold() {
+        return maskThreshold;
+    }
+
+    public void setMaskThreshold(int maskThreshold) {
+        this.maskThreshold = maskThreshold;
+        masks.clear();
+    }
+
+    public Resampler.Filter getScaleFilter() {
+        return scaleFilter;
+    }
+
+    public void setScaleFilter(Resampler.Filter scaleFilter) {
+        this.scaleFilter = scaleFilter;
+    }
+
     public Map<Integer, MediaPlayer> getPlayers() {
         return players;
     }
 
+    public Map<Integer, VoicePool.Effect> getEffects() {
+        return effects;
+    }
+
+    public Map<String, Media> getMedias() {
+        return medias;
+    }
+
+    public VoicePool getVoicePool() {
+        return voicePool;
+    }
+
+    public long getEffectMaxBytes() {
+        return effectMaxBytes;
+    }
+
+    public void setEffectMaxBytes(long effectMaxBytes) {
+        this.effectMaxBytes = effectMaxBytes;
+    }
+
     public Map<Integer, Integer> getPlayersLoop() {
         return playersLoop;
     }
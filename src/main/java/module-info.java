@@ -19,6 +19,7 @@ module com.xebisco.yieldfx {
     requires javafx.fxml;
     requires javafx.media;
     requires YieldEngine;
+    requires jdk.jfr;
     opens com.xebisco.yieldfx to javafx.graphics;
     exports com.xebisco.yieldfx;
 }
\ No newline at end of file
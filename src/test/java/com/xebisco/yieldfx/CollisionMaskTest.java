@@ -0,0 +1,101 @@
+/*
+ * Copyright [2022] [Xebisco]
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.xebisco.yieldfx;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class CollisionMaskTest {
+
+    @Test
+    void bitsFollowTheAlphaThreshold() {
+        int[] argb = {0x7F000000, 0x80000000, 0xFF000000, 0x00FFFFFF};
+        CollisionMask mask = CollisionMask.fromArgb(argb, 2, 2, 128);
+        assertFalse(mask.get(0, 0));
+        assertTrue(mask.get(1, 0));
+        assertTrue(mask.get(0, 1));
+        assertFalse(mask.get(1, 1));
+        assertFalse(mask.get(-1, 0));
+        assertFalse(mask.get(2, 1));
+        assertEquals(2, mask.count());
+    }
+
+    @Test
+    void flippedMatchesBruteForce() {
+        Random random = new Random(17);
+        for (int width : new int[]{1, 5, 63, 64, 65, 130}) {
+            CollisionMask mask = random(random, width, 7, 3);
+            for (int flip = 0; flip < 4; flip++) {
+                boolean flipX = (flip & 1) != 0, flipY = (flip & 2) != 0;
+                CollisionMask flipped = mask.flipped(flipX, flipY);
+                assertEquals(mask.count(), flipped.count(), "count");
+                for (int y = 0; y < 7; y++)
+                    for (int x = 0; x < width; x++)
+                        assertEquals(mask.get(flipX ? width - 1 - x : x, flipY ? 6 - y : y), flipped.get(x, y), "bit");
+            }
+        }
+    }
+
+    @Test
+    void overlapsMatchesBruteForce() {
+        Random random = new Random(19);
+        int[] sizes = {3, 40, 64, 70, 129};
+        for (int i = 0; i < 400; i++) {
+            CollisionMask a = random(random, sizes[random.nextInt(sizes.length)], 1 + random.nextInt(20), 2 + random.nextInt(30));
+            CollisionMask b = random(random, sizes[random.nextInt(sizes.length)], 1 + random.nextInt(20), 2 + random.nextInt(30));
+            int dx = random.nextInt(a.getWidth() + b.getWidth() + 10) - b.getWidth() - 5;
+            int dy = random.nextInt(a.getHeight() + b.getHeight() + 4) - b.getHeight() - 2;
+            assertEquals(bruteForce(a, b, dx, dy), a.overlaps(b, dx, dy), "offset " + dx + "," + dy);
+            assertEquals(bruteForce(b, a, -dx, -dy), b.overlaps(a, -dx, -dy), "reverse " + dx + "," + dy);
+        }
+    }
+
+    @Test
+    void singleBitsMeetOnlyAtTheirOffset() {
+        CollisionMask a = CollisionMask.fromArgb(pixel(100, 1, 70), 100, 1, 1);
+        CollisionMask b = CollisionMask.fromArgb(pixel(10, 1, 3), 10, 1, 1);
+        for (int dx = -10; dx < 100; dx++)
+            assertEquals(dx == 67, a.overlaps(b, dx, 0), "offset " + dx);
+        assertFalse(a.overlaps(b, 67, 1));
+    }
+
+    private static CollisionMask random(Random random, int width, int height, int density) {
+        int[] argb = new int[width * height];
+        for (int i = 0; i < argb.length; i++)
+            argb[i] = random.nextInt(density) == 0 ? 0xFF000000 : 0;
+        return CollisionMask.fromArgb(argb, width, height, 128);
+    }
+
+    private static int[] pixel(int width, int height, int index) {
+        int[] argb = new int[width * height];
+        argb[index] = 0xFF000000;
+        return argb;
+    }
+
+    private static boolean bruteForce(CollisionMask a, CollisionMask b, int dx, int dy) {
+        for (int y = 0; y < a.getHeight(); y++)
+            for (int x = 0; x < a.getWidth(); x++)
+                if (a.get(x, y) && b.get(x - dx, y - dy))
+                    return true;
+        return false;
+    }
+}
@@ -0,0 +1,86 @@
+/*
+ * Copyright [2022] [Xebisco]
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.xebisco.yieldfx;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class CompositorTest {
+
+    @Test
+    void opaqueAndTransparentSourcesShortCut() {
+        assertEquals(0xFF123456, Compositor.over(0xFF654321, 0xFF123456));
+        assertEquals(0x80654321, Compositor.over(0x80654321, 0x00123456));
+        assertEquals(0x40123456, Compositor.over(0x00654321, 0x40123456));
+    }
+
+    @Test
+    void halfWhiteOverBlackIsGrey() {
+        assertEquals(0xFF808080, Compositor.over(0xFF000000, 0x80FFFFFF));
+    }
+
+    @Test
+    void blendMatchesSourceOverWithinRounding() {
+        Random random = new Random(3);
+        for (int i = 0; i < 100000; i++) {
+            int d = random.nextInt(), s = random.nextInt();
+            int actual = Compositor.over(d, s);
+            double sa = (s >>> 24) / 255.0, da = (d >>> 24) / 255.0, oa = sa + da * (1 - sa);
+            assertTrue(Math.abs((actual >>> 24) - oa * 255) <= 1, "alpha");
+            for (int shift = 0; shift < 24; shift += 8) {
+                int sc = (s >> shift) & 0xFF, dc = (d >> shift) & 0xFF;
+                double expected = oa == 0 ? sc : (sc * sa + dc * da * (1 - sa)) / oa;
+                assertTrue(Math.abs(((actual >> shift) & 0xFF) - expected) <= 1, "channel");
+            }
+        }
+    }
+
+    @Test
+    void sourceIsClippedToTheDestination() {
+        int[] dst = new int[4 * 4];
+        int[] src = {0xFF000001, 0xFF000002, 0xFF000003, 0xFF000004};
+        Compositor.over(dst, 4, 4, src, 2, 2, -1, 3);
+        int[] expected = new int[4 * 4];
+        expected[12] = 0xFF000002;
+        assertArrayEquals(expected, dst);
+        Compositor.over(dst, 4, 4, src, 2, 2, 4, 0);
+        assertArrayEquals(expected, dst);
+    }
+
+    @Test
+    void largeBlendsSplitIntoBandsGiveTheSameResult() {
+        Random random = new Random(9);
+        int dw = 400, dh = 300, sw = 380, sh = 290, ox = 15, oy = -7;
+        int[] dst = new int[dw * dh], src = new int[sw * sh];
+        for (int i = 0; i < dst.length; i++)
+            dst[i] = random.nextInt();
+        for (int i = 0; i < src.length; i++)
+            src[i] = random.nextInt();
+        int[] expected = dst.clone();
+        for (int y = 0; y < dh; y++)
+            for (int x = 0; x < dw; x++)
+                if (x - ox >= 0 && x - ox < sw && y - oy >= 0 && y - oy < sh)
+                    expected[y * dw + x] = Compositor.over(expected[y * dw + x], src[(y - oy) * sw + x - ox]);
+        Compositor.over(dst, dw, dh, src, sw, sh, ox, oy);
+        assertArrayEquals(expected, dst);
+    }
+}
@@ -0,0 +1,87 @@
+/*
+ * Copyright [2022] [Xebisco]
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.xebisco.yieldfx;
+
+import com.xebisco.yield.Color;
+import com.xebisco.yield.render.Renderable;
+import com.xebisco.yield.render.RenderableType;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.TreeSet;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+class FrameBufferTest {
+
+    private static final float WIDTH = 1280, HEIGHT = 720;
+
+    @Test
+    void gridFollowsTypeSort() {
+        List<Renderable> renderables = scene(3000);
+        FrameBuffer frame = new FrameBuffer();
+
+        frame.fill(renderables);
+        frame.sortByType();
+        frame.index(1, 256);
+        assertGridMatches(frame);
+
+        frame.fill(renderables);
+        frame.index(1, 256);
+        frame.sortByType();
+        assertGridMatches(frame);
+    }
+
+    private static List<Renderable> scene(int count) {
+        Random random = new Random(7);
+        Object[] images = {new Object(), new Object(), new Object()};
+        List<Renderable> renderables = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            Renderable renderable = new Renderable();
+            renderable.setType(random.nextBoolean() ? RenderableType.RECTANGLE : RenderableType.IMAGE);
+            renderable.setX(random.nextInt(6000) - 2000);
+            renderable.setY(random.nextInt(4000) - 1500);
+            renderable.setWidth(8 + random.nextInt(64));
+            renderable.setHeight(8 + random.nextInt(64));
+            renderable.setzIndex(i / 500);
+            renderable.setColor(new Color(1, 1, 1));
+            if (renderable.getType() == RenderableType.IMAGE)
+                renderable.setSpecific(images[random.nextInt(images.length)]);
+            renderables.add(renderable);
+        }
+        return renderables;
+    }
+
+    private static void assertGridMatches(FrameBuffer frame) {
+        DrawCommand[] commands = frame.getCommands();
+        Set<Integer> expected = new TreeSet<>(), found = new TreeSet<>();
+        for (int i = 0; i < frame.getSize(); i++)
+            if (commands[i].intersects(0, 0, WIDTH, HEIGHT))
+                expected.add(i);
+        int[] out = new int[frame.getSize()];
+        int count = frame.getGrid().query(0, 0, WIDTH, HEIGHT, 0, out);
+        for (int k = 0; k < count; k++)
+            if (commands[out[k]].intersects(0, 0, WIDTH, HEIGHT))
+                found.add(out[k]);
+        assertFalse(expected.isEmpty());
+        assertEquals(expected, found);
+    }
+}
@@ -0,0 +1,107 @@
+/*
+ * Copyright [2022] [Xebisco]
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.xebisco.yieldfx;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class FrameHandoffTest {
+
+    @Test
+    void nothingToAcquireBeforeTheFirstPublish() {
+        FrameHandoff handoff = new FrameHandoff();
+        assertFalse(handoff.acquire());
+        assertEquals(0, handoff.getFront().getFrame());
+    }
+
+    @Test
+    void eachPublishedFrameIsAcquiredOnce() {
+        FrameHandoff handoff = new FrameHandoff();
+        for (int frame = 1; frame <= 10; frame++) {
+            FrameBuffer back = handoff.getBack();
+            handoff.publish();
+            assertNotSame(back, handoff.getBack());
+            assertTrue(handoff.acquire());
+            assertSame(back, handoff.getFront());
+            assertEquals(frame, handoff.getFront().getFrame());
+            assertEquals(0, handoff.getSkipped());
+            assertFalse(handoff.acquire());
+        }
+    }
+
+    @Test
+    void onlyTheNewestFrameIsAcquired() {
+        FrameHandoff handoff = new FrameHandoff();
+        handoff.publish();
+        assertTrue(handoff.acquire());
+        handoff.publish();
+        handoff.publish();
+        FrameBuffer newest = handoff.getBack();
+        handoff.publish();
+        assertTrue(handoff.acquire());
+        assertSame(newest, handoff.getFront());
+        assertEquals(4, handoff.getFront().getFrame());
+        assertEquals(2, handoff.getSkipped());
+    }
+
+    @Test
+    void buffersStayDistinct() {
+        FrameHandoff handoff = new FrameHandoff();
+        for (int i = 0; i < 20; i++) {
+            handoff.publish();
+            if (i % 3 == 0)
+                handoff.acquire();
+            assertNotSame(handoff.getBack(), handoff.getFront());
+        }
+    }
+
+    @Test
+    void concurrentFramesArriveInOrderAndAreAccountedFor() throws InterruptedException {
+        FrameHandoff handoff = new FrameHandoff();
+        int frames = 200000;
+        AtomicBoolean done = new AtomicBoolean();
+        Thread game = new Thread(() -> {
+            for (int i = 0; i < frames; i++)
+                handoff.publish();
+            done.set(true);
+        });
+        game.start();
+        long last = 0, seen = 0;
+        while (true) {
+            boolean finished = done.get();
+            if (handoff.acquire()) {
+                long frame = handoff.getFront().getFrame();
+                assertTrue(frame > last, "frames out of order");
+                assertEquals(frame - last - 1, handoff.getSkipped());
+                seen += 1 + handoff.getSkipped();
+                last = frame;
+            } else if (finished) {
+                break;
+            }
+        }
+        game.join();
+        assertEquals(frames, last);
+        assertEquals(frames, seen);
+    }
+}
@@ -0,0 +1,100 @@
+/*
+ * Copyright [2022] [Xebisco]
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.xebisco.yieldfx;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class FrameSchedulerTest {
+
+    private static final long START = 1_000_000_000L;
+
+    private int released;
+
+    @Test
+    void pulseLockedReleasesOncePerPresentedFrame() {
+        FrameScheduler scheduler = new FrameScheduler();
+        scheduler.frameEnd(this::release);
+        assertEquals(0, released);
+        scheduler.pulse(START, true, this::release);
+        assertEquals(1, released);
+        scheduler.pulse(START + 10_000_000L, false, this::release);
+        assertEquals(1, released);
+        scheduler.pulse(START + 16_000_000L, true, this::release);
+        assertEquals(2, released);
+    }
+
+    @Test
+    void pulseLockedReleasesAStalledGame() {
+        FrameScheduler scheduler = new FrameScheduler();
+        scheduler.setTargetFps(60);
+        scheduler.pulse(START, true, this::release);
+        scheduler.pulse(START + scheduler.getStep() * 2 + 32_000_000L, false, this::release);
+        assertEquals(1, released);
+        scheduler.pulse(START + scheduler.getStep() * 2 + 32_000_001L, false, this::release);
+        assertEquals(2, released);
+    }
+
+    @Test
+    void pulseLockedPresentsEveryFrameInOrder() {
+        FrameHandoff handoff = new FrameHandoff();
+        FrameScheduler scheduler = new FrameScheduler();
+        for (int frame = 1; frame <= 50; frame++) {
+            handoff.publish();
+            scheduler.frameEnd(this::release);
+            assertEquals(frame - 1, released);
+            boolean presented = handoff.acquire();
+            assertTrue(presented);
+            assertEquals(frame, handoff.getFront().getFrame());
+            assertEquals(0, handoff.getSkipped());
+            scheduler.pulse(START + frame * 16_000_000L, presented, this::release);
+            assertEquals(frame, released);
+        }
+    }
+
+    @Test
+    void uncappedReleasesOnEveryFrameEnd() {
+        FrameScheduler scheduler = new FrameScheduler();
+        scheduler.setMode(FrameScheduler.Mode.UNCAPPED);
+        for (int i = 1; i <= 5; i++) {
+            scheduler.frameEnd(this::release);
+            assertEquals(i, released);
+        }
+        scheduler.pulse(START, true, this::release);
+        assertEquals(5, released);
+    }
+
+    @Test
+    void fixedTimestepPacesFrameEnds() {
+        FrameScheduler scheduler = new FrameScheduler();
+        scheduler.setMode(FrameScheduler.Mode.FIXED_TIMESTEP);
+        scheduler.setTargetFps(200);
+        long start = System.nanoTime();
+        for (int i = 0; i < 10; i++)
+            scheduler.frameEnd(this::release);
+        assertTrue(System.nanoTime() - start >= scheduler.getStep() * 10, "frames ran ahead of the target fps");
+        assertEquals(10, released);
+        assertTrue(scheduler.getLastFrameTime() > 0);
+        assertTrue(scheduler.getAverageFps() > 0);
+    }
+
+    private void release() {
+        released++;
+    }
+}
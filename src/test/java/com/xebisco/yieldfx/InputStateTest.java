@@ -0,0 +1,57 @@
+/*
+ * Copyright [2022] [Xebisco]
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.xebisco.yieldfx;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class InputStateTest {
+
+    @Test
+    void tapBetweenFramesSurvivesEndFrame() {
+        InputState input = new InputState();
+        input.keyPressed(65);
+        input.keyReleased(65);
+        input.mousePressed(1);
+        input.mouseReleased(1);
+
+        input.endFrame();
+        assertTrue(input.isPressing(65));
+        assertTrue(input.isPressing(-1));
+        assertTrue(input.getPressing().contains(65));
+
+        input.endFrame();
+        assertFalse(input.isPressing(65));
+        assertFalse(input.isPressing(-1));
+        assertTrue(input.getPressing().isEmpty());
+    }
+
+    @Test
+    void heldKeyStaysPressed() {
+        InputState input = new InputState();
+        input.keyPressed(32);
+        input.endFrame();
+        input.endFrame();
+        input.endFrame();
+        assertTrue(input.isPressing(32));
+        input.keyReleased(32);
+        input.endFrame();
+        assertFalse(input.isPressing(32));
+    }
+}
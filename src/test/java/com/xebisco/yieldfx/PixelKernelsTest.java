@@ -0,0 +1,105 @@
+/*
+ * Copyright [2022] [Xebisco]
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.xebisco.yieldfx;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class PixelKernelsTest {
+
+    @Test
+    void tintMultipliesEveryChannel() {
+        assertEquals(0xFF123456, PixelKernels.tint(0xFFFFFFFF).apply(0xFF123456));
+        assertEquals(0x80FF0000, PixelKernels.tint(0x80FF0000).apply(0xFFFFFFFF));
+    }
+
+    @Test
+    void paletteSwapsOnlyListedColours() {
+        PixelKernels.Pixel palette = PixelKernels.palette(new int[]{0xFF00FF00, 0xFF0000FF}, new int[]{0xFFFF0000, 0x00000000});
+        assertEquals(0xFFFF0000, palette.apply(0xFF00FF00));
+        assertEquals(0x00000000, palette.apply(0xFF0000FF));
+        assertEquals(0xFF123456, palette.apply(0xFF123456));
+        assertThrows(YieldFXException.class, () -> PixelKernels.palette(new int[2], new int[1]));
+    }
+
+    @Test
+    void grayscaleKeepsAlpha() {
+        assertEquals(0xFFFFFFFF, PixelKernels.grayscale().apply(0xFFFFFFFF));
+        assertEquals(0x404C4C4C, PixelKernels.grayscale().apply(0x40FF0000));
+    }
+
+    @Test
+    void alphaThresholdIsInclusive() {
+        assertEquals(0xFF123456, PixelKernels.alphaThreshold(128).apply(0x80123456));
+        assertEquals(0, PixelKernels.alphaThreshold(128).apply(0x7F123456));
+    }
+
+    @Test
+    void outlineTouchesFourNeighbours() {
+        int[] src = new int[3 * 3], dst = new int[3 * 3];
+        src[4] = 0xFF000000;
+        PixelKernels.apply(src, dst, 3, 3, PixelKernels.outline(0xFFFFFFFF, 128));
+        assertArrayEquals(new int[]{
+                0, 0xFFFFFFFF, 0,
+                0xFFFFFFFF, 0xFF000000, 0xFFFFFFFF,
+                0, 0xFFFFFFFF, 0}, dst);
+    }
+
+    @Test
+    void neighbourhoodNeedsASeparateBuffer() {
+        int[] src = new int[4];
+        assertThrows(YieldFXException.class, () -> PixelKernels.apply(src, src, 2, 2, PixelKernels.outline(0, 1)));
+    }
+
+    @Test
+    void atClampsToTheEdges() {
+        int[] src = {1, 2, 3, 4};
+        assertEquals(1, PixelKernels.at(src, 2, 2, -5, -1));
+        assertEquals(4, PixelKernels.at(src, 2, 2, 9, 9));
+        assertEquals(2, PixelKernels.at(src, 2, 2, 1, -3));
+    }
+
+    @Test
+    void largeBuffersSplitIntoBandsGiveTheSameResult() {
+        Random random = new Random(13);
+        int width = 500, height = 300;
+        int[] src = new int[width * height];
+        for (int i = 0; i < src.length; i++)
+            src[i] = random.nextInt(4) == 0 ? random.nextInt() : 0;
+
+        PixelKernels.Pixel grayscale = PixelKernels.grayscale();
+        int[] expected = new int[src.length];
+        for (int i = 0; i < src.length; i++)
+            expected[i] = grayscale.apply(src[i]);
+        int[] inPlace = src.clone();
+        PixelKernels.apply(inPlace, inPlace, width, height, grayscale);
+        assertArrayEquals(expected, inPlace);
+
+        PixelKernels.Neighbourhood outline = PixelKernels.outline(0xFFFFFFFF, 128);
+        for (int y = 0; y < height; y++)
+            for (int x = 0; x < width; x++)
+                expected[y * width + x] = outline.apply(src, width, height, x, y);
+        int[] dst = new int[src.length];
+        PixelKernels.apply(src, dst, width, height, outline);
+        assertArrayEquals(expected, dst);
+    }
+}
@@ -0,0 +1,103 @@
+/*
+ * Copyright [2022] [Xebisco]
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.xebisco.yieldfx;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Random;
+import java.util.zip.CRC32;
+import java.util.zip.DataFormatException;
+import java.util.zip.Inflater;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class PngEncoderTest {
+
+    @Test
+    void randomPixelsRoundTrip() throws Exception {
+        Random random = new Random(5);
+        int[] argb = new int[37 * 23];
+        for (int i = 0; i < argb.length; i++)
+            argb[i] = random.nextInt();
+        for (int level : new int[]{0, 1, 9})
+            assertArrayEquals(argb, decode(encode(argb, 37, 23, level), 37, 23));
+    }
+
+    @Test
+    void singlePixelRoundTrips() throws Exception {
+        int[] argb = {0x7F102030};
+        assertArrayEquals(argb, decode(encode(argb, 1, 1, 6), 1, 1));
+    }
+
+    private static byte[] encode(int[] argb, int width, int height, int level) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        PngEncoder.encode(argb, width, height, out, level);
+        return out.toByteArray();
+    }
+
+    private static int[] decode(byte[] png, int width, int height) throws IOException, DataFormatException {
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(png));
+        byte[] signature = new byte[8];
+        in.readFully(signature);
+        assertArrayEquals(new byte[]{(byte) 137, 80, 78, 71, 13, 10, 26, 10}, signature);
+        ByteArrayOutputStream idat = new ByteArrayOutputStream();
+        String type;
+        do {
+            byte[] data = new byte[in.readInt()];
+            byte[] name = new byte[4];
+            in.readFully(name);
+            in.readFully(data);
+            CRC32 crc = new CRC32();
+            crc.update(name);
+            crc.update(data);
+            assertEquals((int) crc.getValue(), in.readInt());
+            type = new String(name, StandardCharsets.US_ASCII);
+            if (type.equals("IHDR")) {
+                DataInputStream header = new DataInputStream(new ByteArrayInputStream(data));
+                assertEquals(width, header.readInt());
+                assertEquals(height, header.readInt());
+                assertEquals(8, header.readByte());
+                assertEquals(6, header.readByte());
+            } else if (type.equals("IDAT")) {
+                idat.write(data);
+            }
+        } while (!type.equals("IEND"));
+
+        int stride = 1 + width * 4;
+        byte[] raw = new byte[stride * height];
+        Inflater inflater = new Inflater();
+        inflater.setInput(idat.toByteArray());
+        assertEquals(raw.length, inflater.inflate(raw));
+        inflater.end();
+
+        int[] argb = new int[width * height];
+        for (int y = 0; y < height; y++) {
+            assertEquals(1, raw[y * stride]);
+            for (int j = y * stride + 5; j < (y + 1) * stride; j++)
+                raw[j] += raw[j - 4];
+            for (int x = 0, j = y * stride + 1; x < width; x++, j += 4)
+                argb[y * width + x] = (raw[j + 3] & 0xFF) << 24 | (raw[j] & 0xFF) << 16 | (raw[j + 1] & 0xFF) << 8 | raw[j + 2] & 0xFF;
+        }
+        return argb;
+    }
+}
@@ -0,0 +1,102 @@
+/*
+ * Copyright [2022] [Xebisco]
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.xebisco.yieldfx;
+
+import com.xebisco.yieldfx.Resampler.Filter;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class ResamplerTest {
+
+    @Test
+    void sameSizeIsACopy() {
+        int[] src = random(7, 5, 1);
+        for (Filter filter : Filter.values())
+            assertArrayEquals(src, Resampler.resample(src, 7, 5, 7, 5, filter));
+    }
+
+    @Test
+    void nearestUpscaleRepeatsPixels() {
+        int[] src = {0xFF000001, 0xFF000002, 0xFF000003, 0xFF000004};
+        int[] expected = {
+                0xFF000001, 0xFF000001, 0xFF000002, 0xFF000002,
+                0xFF000001, 0xFF000001, 0xFF000002, 0xFF000002,
+                0xFF000003, 0xFF000003, 0xFF000004, 0xFF000004,
+                0xFF000003, 0xFF000003, 0xFF000004, 0xFF000004};
+        assertArrayEquals(expected, Resampler.resample(src, 2, 2, 4, 4, Filter.NEAREST));
+    }
+
+    @Test
+    void nearestDownscaleSamplesPixelCentres() {
+        int[] src = random(4, 4, 2);
+        int[] expected = {src[5], src[7], src[13], src[15]};
+        assertArrayEquals(expected, Resampler.resample(src, 4, 4, 2, 2, Filter.NEAREST));
+    }
+
+    @Test
+    void largeOutputsSplitIntoBandsGiveTheSameResult() {
+        int[] src = random(100, 100, 3);
+        int[] dst = Resampler.resample(src, 100, 100, 400, 400, Filter.NEAREST);
+        for (int y = 0; y < 400; y++)
+            for (int x = 0; x < 400; x++)
+                assertEquals(src[(y / 4) * 100 + x / 4], dst[y * 400 + x]);
+    }
+
+    @Test
+    void uniformColourSurvivesEveryFilter() {
+        int[] src = new int[6 * 6];
+        Arrays.fill(src, 0x80336699);
+        int[] expected = new int[9 * 4];
+        Arrays.fill(expected, 0x80336699);
+        for (Filter filter : Filter.values())
+            assertArrayEquals(expected, Resampler.resample(src, 6, 6, 9, 4, filter), filter.name());
+    }
+
+    @Test
+    void transparentPixelsDontBleedTheirColour() {
+        int[] src = {0xFFFF0000, 0x000000FF};
+        for (Filter filter : new Filter[]{Filter.BILINEAR, Filter.AREA})
+            for (int p : Resampler.resample(src, 2, 1, filter == Filter.AREA ? 1 : 8, 1, filter))
+                if (p >>> 24 != 0)
+                    assertEquals(0xFF0000, p & 0xFFFFFF, filter.name());
+    }
+
+    @Test
+    void areaAveragesCoveredPixels() {
+        int[] src = {0xFFFFFFFF, 0xFF000000, 0xFF000000, 0xFFFFFFFF};
+        assertArrayEquals(new int[]{0xFF808080}, Resampler.resample(src, 2, 2, 1, 1, Filter.AREA));
+    }
+
+    @Test
+    void emptyOutputIsRejected() {
+        assertThrows(YieldFXException.class, () -> Resampler.resample(new int[4], 2, 2, 0, 3, Filter.NEAREST));
+    }
+
+    private static int[] random(int width, int height, long seed) {
+        Random random = new Random(seed);
+        int[] argb = new int[width * height];
+        for (int i = 0; i < argb.length; i++)
+            argb[i] = random.nextInt();
+        return argb;
+    }
+}
@@ -0,0 +1,116 @@
+/*
+ * Copyright [2022] [Xebisco]
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.xebisco.yieldfx;
+
+import com.xebisco.yield.Color;
+import com.xebisco.yield.render.Renderable;
+import com.xebisco.yield.render.RenderableType;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SpatialGridTest {
+
+    @Test
+    void queriesMatchBruteForceAsCommandsMove() {
+        Random random = new Random(11);
+        DrawCommand[] commands = new DrawCommand[2000];
+        Renderable[] renderables = new Renderable[commands.length];
+        for (int i = 0; i < commands.length; i++) {
+            commands[i] = new DrawCommand();
+            renderables[i] = renderable(RenderableType.RECTANGLE);
+        }
+        SpatialGrid grid = new SpatialGrid(128);
+        int[] out = new int[commands.length];
+        for (int frame = 0; frame < 30; frame++) {
+            int n = commands.length - random.nextInt(300);
+            for (int i = 0; i < n; i++) {
+                if (frame == 0 || random.nextInt(8) == 0) {
+                    Renderable renderable = renderables[i];
+                    renderable.setX(random.nextInt(8000) - 4000);
+                    renderable.setY(random.nextInt(8000) - 4000);
+                    renderable.setWidth(random.nextInt(i % 40 == 0 ? 3000 : 200));
+                    renderable.setHeight(random.nextInt(200));
+                    renderable.setRotation(random.nextInt(360));
+                }
+                commands[i].set(renderables[i], false);
+            }
+            grid.update(commands, n);
+            for (int q = 0; q < 5; q++) {
+                float minX = random.nextInt(6000) - 3000, minY = random.nextInt(6000) - 3000;
+                float maxX = minX + random.nextInt(1500), maxY = minY + random.nextInt(1000);
+                int from = random.nextInt(50);
+                assertMatches(commands, n, grid.query(minX, minY, maxX, maxY, from, out), out, minX, minY, maxX, maxY, from);
+            }
+        }
+    }
+
+    @Test
+    void unboundedCommandsAreInEveryQuery() {
+        DrawCommand[] commands = {new DrawCommand(), new DrawCommand()};
+        Renderable text = renderable(RenderableType.TEXT);
+        text.setSpecific("unmeasured");
+        commands[0].set(text, false);
+        Renderable far = renderable(RenderableType.RECTANGLE);
+        far.setX(100000);
+        far.setY(100000);
+        commands[1].set(far, false);
+        SpatialGrid grid = new SpatialGrid(64);
+        grid.update(commands, 2);
+        int[] out = new int[2];
+        assertEquals(1, grid.query(-10, -10, 10, 10, 0, out));
+        assertEquals(0, out[0]);
+        assertEquals(0, grid.query(-10, -10, 10, 10, 1, out));
+    }
+
+    @Test
+    void clearEmptiesTheGrid() {
+        DrawCommand[] commands = {new DrawCommand()};
+        commands[0].set(renderable(RenderableType.RECTANGLE), false);
+        SpatialGrid grid = new SpatialGrid(64);
+        grid.update(commands, 1);
+        assertEquals(1, grid.query(0, 0, 1, 1, 0, new int[1]));
+        grid.clear();
+        assertEquals(0, grid.getSize());
+        assertEquals(0, grid.getCellCount());
+        assertEquals(0, grid.query(0, 0, 1, 1, 0, new int[1]));
+    }
+
+    private static Renderable renderable(RenderableType type) {
+        Renderable renderable = new Renderable();
+        renderable.setType(type);
+        renderable.setWidth(16);
+        renderable.setHeight(16);
+        renderable.setColor(new Color(1, 1, 1));
+        return renderable;
+    }
+
+    private static void assertMatches(DrawCommand[] commands, int n, int count, int[] out, float minX, float minY, float maxX, float maxY, int from) {
+        boolean[] found = new boolean[n];
+        for (int k = 0; k < count; k++) {
+            assertTrue(out[k] >= from && out[k] < n, "index out of range");
+            assertTrue(k == 0 || out[k] > out[k - 1], "indices not ascending");
+            found[out[k]] = true;
+        }
+        for (int i = from; i < n; i++)
+            if (commands[i].intersects(minX, minY, maxX, maxY))
+                assertTrue(found[i], "missing command " + i);
+    }
+}
@@ -0,0 +1,119 @@
+/*
+ * Copyright [2022] [Xebisco]
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.xebisco.yieldfx;
+
+import javafx.scene.image.PixelFormat;
+import javafx.scene.image.WritableImage;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TextureAtlasTest {
+
+    @Test
+    void packedRegionsStayInsideTheirPageAndApart() {
+        TextureAtlas atlas = new TextureAtlas(256, 64, 1);
+        Random random = new Random(3);
+        List<TextureView> views = new ArrayList<>();
+        for (int i = 0; i < 200; i++) {
+            TextureView view = atlas.add(image(1 + random.nextInt(64), 1 + random.nextInt(64), 0xFF000000 | i));
+            assertNotNull(view);
+            views.add(view);
+        }
+        assertTrue(atlas.getPageCount() > 1);
+        for (int i = 0; i < views.size(); i++) {
+            TextureView a = views.get(i);
+            assertTrue(a.getX() >= 1 && a.getY() >= 1 && a.getX() + a.getWidth() <= 255 && a.getY() + a.getHeight() <= 255);
+            for (int j = i + 1; j < views.size(); j++) {
+                TextureView b = views.get(j);
+                if (a.getSource() == b.getSource())
+                    assertFalse(a.getX() - 1 < b.getX() + b.getWidth() + 1 && b.getX() - 1 < a.getX() + a.getWidth() + 1
+                            && a.getY() - 1 < b.getY() + b.getHeight() + 1 && b.getY() - 1 < a.getY() + a.getHeight() + 1);
+            }
+        }
+    }
+
+    @Test
+    void packedPixelsMatchTheSource() {
+        TextureAtlas atlas = new TextureAtlas(128, 32, 1);
+        atlas.add(image(20, 10, 0xFF00FF00));
+        TextureView view = atlas.add(image(12, 7, 0xFFFF0000));
+        int[] pixels = new int[12 * 7], expected = new int[12 * 7];
+        Arrays.fill(expected, 0xFFFF0000);
+        view.readArgb(pixels, 0, 12);
+        assertArrayEquals(expected, pixels);
+    }
+
+    @Test
+    void oversizedImagesAreNotPacked() {
+        TextureAtlas atlas = new TextureAtlas(128, 32, 1);
+        assertNull(atlas.add(image(33, 8, 0xFFFFFFFF)));
+        assertEquals(0, atlas.getPageCount());
+    }
+
+    @Test
+    void freedRegionIsClearedAndReused() {
+        TextureAtlas atlas = new TextureAtlas(64, 32, 1);
+        TextureView a = atlas.add(image(30, 30, 0xFF0000FF)), b = atlas.add(image(30, 30, 0xFF00FF00));
+        atlas.add(image(30, 30, 0xFFFF0000));
+        assertTrue(atlas.free(b));
+        int[] cleared = new int[30 * 30];
+        b.readArgb(cleared, 0, 30);
+        for (int p : cleared)
+            assertEquals(0, p);
+
+        TextureView c = atlas.add(image(20, 20, 0xFFFFFFFF));
+        assertEquals(1, atlas.getPageCount());
+        assertSame(b.getSource(), c.getSource());
+        assertEquals(b.getX(), c.getX());
+        assertEquals(b.getY(), c.getY());
+        assertFalse(atlas.free(a.flipped(true, false)));
+    }
+
+    @Test
+    void pageStartsOverOnceEveryRegionIsFreed() {
+        TextureAtlas atlas = new TextureAtlas(64, 32, 1);
+        List<TextureView> views = new ArrayList<>();
+        for (int i = 0; i < 4; i++)
+            views.add(atlas.add(image(30, 30, 0xFFFFFFFF)));
+        assertEquals(1, atlas.getPageCount());
+        for (TextureView view : views)
+            assertTrue(atlas.free(view));
+        for (int i = 0; i < 4; i++)
+            atlas.add(image(30, 30, 0xFFFFFFFF));
+        assertEquals(1, atlas.getPageCount());
+    }
+
+    private static WritableImage image(int width, int height, int argb) {
+        int[] pixels = new int[width * height];
+        Arrays.fill(pixels, argb);
+        WritableImage image = new WritableImage(width, height);
+        image.getPixelWriter().setPixels(0, 0, width, height, PixelFormat.getIntArgbInstance(), pixels, 0, width);
+        return image;
+    }
+}